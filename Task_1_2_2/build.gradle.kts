@@ -8,6 +8,7 @@ plugins {
     java
     jacoco
     application
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -33,6 +34,19 @@ tasks.named<Test>("test") {
     useJUnitPlatform()
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    // -Pjmh.params="size=10000000,50000000;keyType=String" overrides the @Param values.
+    (findProperty("jmh.params") as String?)?.split(';')?.forEach { param ->
+        val (name, values) = param.split('=', limit = 2)
+        benchmarkParameters.put(name.trim(),
+            objects.listProperty<String>().value(values.split(',').map { it.trim() }))
+    }
+    // -Pjmh.heap=16g replaces the heap size set in @Fork.
+    (findProperty("jmh.heap") as String?)?.let { jvmArgsAppend.addAll("-Xms$it", "-Xmx$it") }
+}
+
 tasks.jacocoTestReport {
     reports {
         xml.required.set(true)
@@ -0,0 +1,83 @@
+package hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link HashTable#getAll} with a loop of single-key lookups over batches of 1,000
+ * keys. The larger sizes do not fit in the CPU caches, which is where overlapping the misses
+ * of independent lookups pays off.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchLookupBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    private HashTable<Integer, Integer> table;
+    private Integer[][] batches;
+    private Integer[] results;
+    private int next;
+
+    /**
+     * Fills the table and prepares random batches of keys, half of which are present.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        table = new HashTable<>();
+        for (int i = 0; i < size; i++) {
+            table.put(i * 2, i);
+        }
+        batches = new Integer[64][BATCH];
+        for (Integer[] batch : batches) {
+            for (int i = 0; i < BATCH; i++) {
+                batch[i] = random.nextInt(size * 2);
+            }
+        }
+        results = new Integer[BATCH];
+    }
+
+    private Integer[] nextBatch() {
+        Integer[] batch = batches[next];
+        next = (next + 1) & (batches.length - 1);
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void singleGets(Blackhole blackhole) {
+        Integer[] batch = nextBatch();
+        for (int i = 0; i < BATCH; i++) {
+            results[i] = table.get(batch[i]);
+        }
+        blackhole.consume(results);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int batchedGets() {
+        return table.getAll(nextBatch(), results);
+    }
+}
@@ -0,0 +1,94 @@
+package hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of {@link HashTable#enableRandomizedHashing()} against the default
+ * hashing, on ordinary random strings and on strings that all share one {@code hashCode()}.
+ *
+ * <p>With {@code keys=random} the difference is the price of SipHash over the plain hash code
+ * on every lookup and insertion. With {@code keys=colliding} the default table degrades to a
+ * single chain, so building it is quadratic, while the randomized table keeps its chains
+ * short.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HashFloodingBenchmark {
+
+    private static final int BITS = 12;
+    private static final int SIZE = 1 << BITS;
+
+    @Param({"plain", "randomized"})
+    private String hashing;
+
+    @Param({"random", "colliding"})
+    private String keys;
+
+    private String[] keySet;
+    private HashTable<String, Integer> table;
+
+    /**
+     * Builds the keys and a table holding all of them.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        keySet = new String[SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            if (keys.equals("colliding")) {
+                StringBuilder sb = new StringBuilder();
+                for (int b = 0; b < BITS; b++) {
+                    sb.append((i >>> b & 1) == 0 ? "Aa" : "BB");
+                }
+                keySet[i] = sb.toString();
+            } else {
+                keySet[i] = Long.toString(random.nextLong() >>> 1, 36);
+            }
+        }
+        table = build();
+    }
+
+    private HashTable<String, Integer> build() {
+        HashTable<String, Integer> result = new HashTable<>();
+        if (hashing.equals("randomized")) {
+            result.enableRandomizedHashing();
+        }
+        for (int i = 0; i < SIZE; i++) {
+            result.put(keySet[i], i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public HashTable<String, Integer> puts() {
+        return build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void gets(Blackhole blackhole) {
+        for (String key : keySet) {
+            blackhole.consume(table.get(key));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package hashtable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link HashTable} with {@link HashMap} on lookups, updates, insert/remove pairs and
+ * full iteration.
+ *
+ * <p>Every benchmark runs in throughput mode and in sample-time mode, which reports latency
+ * percentiles (p50, p90, p99, p99.9...). The build enables the {@code gc} profiler, which adds
+ * the allocation rate and the bytes allocated per operation. The parameters are:</p>
+ * <ul>
+ *     <li>{@code impl}: {@code HashTable} or {@code HashMap};</li>
+ *     <li>{@code keyType}: {@code Integer}, {@code Long}, {@code String} or {@code Record};</li>
+ *     <li>{@code size}: the number of entries, 1K to 1M by default;</li>
+ *     <li>{@code distribution}: {@code uniform} access, or {@code zipfian} with skew 0.99,
+ *     where a few hot keys take most of the accesses; only {@code get}, {@code containsKey}
+ *     and {@code update} use it;</li>
+ *     <li>{@code hitRatio}: the fraction of lookups for keys that are present; only
+ *     {@code get} and {@code containsKey} use it.</li>
+ * </ul>
+ * <p>The default matrix fits the 2 GiB heap of the fork. Larger tables are opt-in, together
+ * with a larger heap: 50M entries need about 16 GiB, for example
+ * {@code -Pjmh.params="size=10000000,50000000;keyType=String" -Pjmh.heap=16g}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HashTableBenchmark {
+
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param({"HashTable", "HashMap"})
+    private String impl;
+
+    @Param({"Integer", "Long", "String", "Record"})
+    private String keyType;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private boolean useHashMap;
+    private HashTable<Object, Object> table;
+    private HashMap<Object, Object> map;
+    private Object[] absent;
+    private int position;
+
+    /**
+     * A composite key, as used for multi-tenant lookups.
+     *
+     * @param tenant the tenant id.
+     * @param id     the id within the tenant.
+     */
+    record TenantKey(int tenant, long id) {
+    }
+
+    /**
+     * Keys drawn from the access distribution, for updates of present keys.
+     */
+    @State(Scope.Benchmark)
+    public static class Access {
+
+        @Param({"uniform", "zipfian"})
+        private String distribution;
+
+        private long[] indexes;
+        private Object[] updates;
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp(HashTableBenchmark benchmark) {
+            Random random = new Random(42);
+            ZipfianGenerator zipfian = distribution.equals("zipfian")
+                ? new ZipfianGenerator(benchmark.size, 0.99, 42) : null;
+            indexes = new long[LOOKUPS];
+            updates = new Object[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                indexes[i] = zipfian == null ? random.nextInt(benchmark.size) : zipfian.next();
+                updates[i] = benchmark.key(2 * indexes[i]);
+            }
+        }
+
+        private int next() {
+            int i = position;
+            position = (i + 1) & (LOOKUPS - 1);
+            return i;
+        }
+    }
+
+    /**
+     * Lookup keys that follow the access distribution and miss at the configured rate.
+     */
+    @State(Scope.Benchmark)
+    public static class Lookups {
+
+        @Param({"1.0", "0.5"})
+        private double hitRatio;
+
+        private Object[] keys;
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp(HashTableBenchmark benchmark, Access access) {
+            Random random = new Random(42);
+            keys = new Object[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                boolean hit = random.nextDouble() < hitRatio;
+                keys[i] = benchmark.key(2 * access.indexes[i] + (hit ? 0 : 1));
+            }
+        }
+
+        private Object next() {
+            Object key = keys[position];
+            position = (position + 1) & (LOOKUPS - 1);
+            return key;
+        }
+    }
+
+    /**
+     * Builds the table and the absent keys. Present keys have even ids and absent keys odd
+     * ids, so both kinds have the same shape.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        useHashMap = impl.equals("HashMap");
+        table = new HashTable<>();
+        map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Object key = key(2L * i);
+            if (useHashMap) {
+                map.put(key, i);
+            } else {
+                table.put(key, i);
+            }
+        }
+
+        Random random = new Random(42);
+        absent = new Object[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            absent[i] = key(2L * random.nextInt(size) + 1);
+        }
+    }
+
+    private Object key(long id) {
+        return switch (keyType) {
+            case "Integer" -> (int) id;
+            case "Long" -> id * 0x9E3779B97F4A7C15L;
+            case "String" -> "user:" + id;
+            case "Record" -> new TenantKey((int) (id % 64), id);
+            default -> throw new IllegalArgumentException("Unknown key type: " + keyType);
+        };
+    }
+
+    private int next() {
+        int i = position;
+        position = (i + 1) & (LOOKUPS - 1);
+        return i;
+    }
+
+    @Benchmark
+    public Object get(Lookups lookups) {
+        Object key = lookups.next();
+        return useHashMap ? map.get(key) : table.get(key);
+    }
+
+    @Benchmark
+    public boolean containsKey(Lookups lookups) {
+        Object key = lookups.next();
+        return useHashMap ? map.containsKey(key) : table.containsKey(key);
+    }
+
+    @Benchmark
+    public void update(Access access) {
+        int i = access.next();
+        if (useHashMap) {
+            map.put(access.updates[i], i);
+        } else {
+            table.put(access.updates[i], i);
+        }
+    }
+
+    /**
+     * Inserts an absent key and removes it again, which keeps the size constant.
+     *
+     * @return the removed value.
+     */
+    @Benchmark
+    public Object putRemove() {
+        int i = next();
+        Object key = absent[i];
+        if (useHashMap) {
+            map.put(key, i);
+            return map.remove(key);
+        }
+        table.put(key, i);
+        return table.remove(key);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        if (useHashMap) {
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                blackhole.consume(entry.getValue());
+            }
+        } else {
+            for (HashTable.Entry<Object, Object> entry : table) {
+                blackhole.consume(entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package hashtable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replays an access trace against {@link HashTableCache} and reports throughput together with
+ * the hit rate of each eviction policy.
+ *
+ * <p>The trace is a text file with one integer key per line, given by the {@code trace}
+ * parameter (for example {@code -Pjmh.params=trace=/path/to/trace.txt} or
+ * {@code -p trace=...}). Without a trace file a synthetic Zipfian trace is used.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HashTableCacheBenchmark {
+
+    @Param({""})
+    private String trace;
+
+    @Param({"lru", "tinylfu"})
+    private String policy;
+
+    @Param({"1000", "100000"})
+    private int maximumSize;
+
+    private int[] keys;
+    private int position;
+    private HashTableCache<Integer, Integer> cache;
+
+    /**
+     * Hits and misses of the current iteration; the hit rate is hits / (hits + misses).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HitRate {
+
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    /**
+     * Loads the trace once per trial.
+     *
+     * @throws IOException if the trace file cannot be read.
+     */
+    @Setup(Level.Trial)
+    public void loadTrace() throws IOException {
+        if (trace.isEmpty()) {
+            keys = new ZipfianGenerator(maximumSize * 100, 0.99, 42).nextInts(1 << 22);
+        } else {
+            try (var lines = Files.lines(Path.of(trace))) {
+                keys = lines.filter(line -> !line.isBlank())
+                    .mapToInt(line -> Integer.parseInt(line.trim()))
+                    .toArray();
+            }
+        }
+    }
+
+    /**
+     * Starts every iteration with an empty cache.
+     */
+    @Setup(Level.Iteration)
+    public void createCache() {
+        HashTableCache.Builder<Integer, Integer> builder =
+            HashTableCache.<Integer, Integer>builder().maximumSize(maximumSize);
+        if (policy.equals("tinylfu")) {
+            builder.tinyLfu();
+        }
+        cache = builder.build();
+        position = 0;
+    }
+
+    @Benchmark
+    public Integer replay(HitRate hitRate) {
+        Integer key = keys[position];
+        position = position + 1 == keys.length ? 0 : position + 1;
+        Integer value = cache.get(key);
+        if (value == null) {
+            hitRate.misses++;
+            cache.put(key, key);
+            return key;
+        }
+        hitRate.hits++;
+        return value;
+    }
+}
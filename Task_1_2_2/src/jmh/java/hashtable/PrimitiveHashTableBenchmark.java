@@ -0,0 +1,217 @@
+package hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the primitive-specialized tables with {@link HashTable} holding boxed keys and
+ * values. Throughput benchmarks report operations per second per key; the footprint
+ * benchmarks report the retained heap per entry through an auxiliary counter.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrimitiveHashTableBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private int[] keys;
+    private int[] missingKeys;
+    private HashTable<Integer, Integer> boxedTable;
+    private IntIntHashTable intIntTable;
+    private HashTable<Long, Object> boxedLongTable;
+    private LongObjectHashTable<Object> longObjectTable;
+
+    /**
+     * Builds the key sets and pre-filled tables.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new int[size];
+        missingKeys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt() | 1;
+            missingKeys[i] = keys[i] & ~1;
+        }
+        boxedTable = new HashTable<>();
+        intIntTable = new IntIntHashTable();
+        boxedLongTable = new HashTable<>();
+        longObjectTable = new LongObjectHashTable<>();
+        for (int key : keys) {
+            boxedTable.put(key, key);
+            intIntTable.put(key, key);
+            boxedLongTable.put((long) key, Boolean.TRUE);
+            longObjectTable.put(key, Boolean.TRUE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public HashTable<Integer, Integer> putBoxed() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < 1000; i++) {
+            table.put(keys[i % size], i);
+        }
+        return table;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public IntIntHashTable putIntInt() {
+        IntIntHashTable table = new IntIntHashTable();
+        for (int i = 0; i < 1000; i++) {
+            table.put(keys[i % size], i);
+        }
+        return table;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getHitBoxed(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(boxedTable.get(keys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getHitIntInt(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(intIntTable.get(keys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getMissBoxed(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(boxedTable.get(missingKeys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getMissIntInt(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(intIntTable.get(missingKeys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getBoxedLong(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(boxedLongTable.get((long) keys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void getLongObject(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(longObjectTable.get(keys[i % size]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void removeAndPutIntInt() {
+        for (int i = 0; i < 1000; i++) {
+            int key = keys[i % size];
+            intIntTable.put(key, intIntTable.remove(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void removeAndPutBoxed() {
+        for (int i = 0; i < 1000; i++) {
+            int key = keys[i % size];
+            boxedTable.put(key, boxedTable.remove(key));
+        }
+    }
+
+    @Benchmark
+    public long iterateBoxed() {
+        long sum = 0;
+        for (HashTable.Entry<Integer, Integer> entry : boxedTable) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long iterateIntInt() {
+        long sum = 0;
+        for (IntIntHashTable.Cursor cursor = intIntTable.cursor(); cursor.advance(); ) {
+            sum += cursor.value();
+        }
+        return sum;
+    }
+
+    /**
+     * Reports the heap retained per entry by a freshly built table.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long bytesPerEntry;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object footprintBoxed(Footprint footprint) {
+        long before = usedHeap();
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int key : keys) {
+            table.put(key, key);
+        }
+        footprint.bytesPerEntry = (usedHeap() - before) / size;
+        return table;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object footprintIntInt(Footprint footprint) {
+        long before = usedHeap();
+        IntIntHashTable table = new IntIntHashTable();
+        for (int key : keys) {
+            table.put(key, key);
+        }
+        footprint.bytesPerEntry = (usedHeap() - before) / size;
+        return table;
+    }
+
+    /**
+     * Returns the used heap after asking for a full collection, so that only live objects are
+     * counted.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,61 @@
+package hashtable;
+
+import java.util.Random;
+
+/**
+ * Draws integers in {@code [0, items)} with a Zipfian distribution, where item {@code i} is
+ * requested with probability proportional to {@code 1 / (i + 1)^skew}. Uses the rejection-free
+ * method of Gray et al. ("Quickly generating billion-record synthetic databases").
+ */
+final class ZipfianGenerator {
+
+    private final Random random;
+    private final int items;
+    private final double skew;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    ZipfianGenerator(int items, double skew, long seed) {
+        this.random = new Random(seed);
+        this.items = items;
+        this.skew = skew;
+        this.zetaN = zeta(items, skew);
+        this.alpha = 1.0 / (1.0 - skew);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - skew)) / (1 - zeta(2, skew) / zetaN);
+    }
+
+    private static double zeta(int n, double skew) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, skew);
+        }
+        return sum;
+    }
+
+    int next() {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, skew)) {
+            return 1;
+        }
+        return Math.min(items - 1, (int) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    /**
+     * Fills an array with draws.
+     *
+     * @param length the number of draws.
+     * @return the draws.
+     */
+    int[] nextInts(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = next();
+        }
+        return result;
+    }
+}
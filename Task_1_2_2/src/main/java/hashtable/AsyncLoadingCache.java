@@ -0,0 +1,384 @@
+package hashtable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread-safe cache that loads missing values asynchronously, built on
+ * {@link ConcurrentHashTable}.
+ *
+ * <p>Each key maps to one {@link CompletableFuture}. The first request for an absent key
+ * installs the future atomically and starts the loader; concurrent requests for the same key
+ * get the same future, so a burst of misses for a hot key costs a single load. Loaders are
+ * plain blocking functions and run on virtual threads by default, so a slow load occupies no
+ * platform thread while it waits. A load that fails or returns {@code null} completes its
+ * future accordingly and is not cached, so the next request loads again.</p>
+ *
+ * <p>Values may expire a fixed time after they were loaded or put. With
+ * {@link Builder#refreshAfterWrite(Duration)}, a request for a value older than the refresh
+ * interval still gets the current value immediately while a single background reload replaces
+ * it, so hot keys are reloaded before they expire instead of missing. A failed refresh keeps
+ * the old value. Expired entries are removed when they are requested or by
+ * {@link #cleanUp()}. {@code null} keys are not permitted.</p>
+ *
+ * @param <K> the type of keys maintained by this cache.
+ * @param <V> the type of cached values.
+ */
+public class AsyncLoadingCache<K, V> {
+
+    /**
+     * Computes the value of a key. It may block; by default it runs on a virtual thread.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+
+        /**
+         * Loads the value of the key.
+         *
+         * @param key the key.
+         * @return the value, or {@code null} if the key has none.
+         * @throws Exception if the value cannot be loaded.
+         */
+        V load(K key) throws Exception;
+    }
+
+    /**
+     * The future of one key and the time its value was written.
+     *
+     * @param <V> the type of the value.
+     */
+    private static final class Slot<V> {
+
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long writeTime;
+
+        boolean hasValue() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+    }
+
+    private static final Executor VIRTUAL_THREADS =
+        task -> Thread.ofVirtual().name("cache-loader").start(task);
+
+    private final ConcurrentHashTable<K, Slot<V>> table = new ConcurrentHashTable<>();
+    private final Loader<? super K, V> loader;
+    private final Executor executor;
+    private final long expireAfterWriteNanos;
+    private final long refreshAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+
+    private AsyncLoadingCache(Builder<K, V> builder, Loader<? super K, V> loader) {
+        this.loader = loader;
+        this.executor = builder.executor;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        this.ticker = builder.ticker;
+    }
+
+    /**
+     * Returns a builder for a cache.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return a new builder.
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the future value of the key, starting a load if the key is absent or expired.
+     * Concurrent calls for a key that is being loaded return the same future.
+     *
+     * @param key the key.
+     * @return the future value; it completes with {@code null} if the loader returned
+     *         {@code null}, and exceptionally if the loader failed.
+     * @throws NullPointerException if the key is {@code null}.
+     */
+    public CompletableFuture<V> get(K key) {
+        Objects.requireNonNull(key);
+        long now = ticker.getAsLong();
+        Slot<V> slot = table.get(key);
+        if (slot != null && !isExpired(slot, now)) {
+            hitCount.increment();
+            refreshIfStale(key, slot, now);
+            return slot.future;
+        }
+        Slot<V> created = new Slot<>();
+        Slot<V> current = table.compute(key,
+            (k, old) -> old != null && !isExpired(old, now) ? old : created);
+        if (current != created) {
+            hitCount.increment();
+            return current.future;
+        }
+        missCount.increment();
+        load(key, created, created.future);
+        return created.future;
+    }
+
+    /**
+     * Returns the future value of the key without loading it.
+     *
+     * @param key the key.
+     * @return the future value, or {@code null} if the key is absent or expired.
+     */
+    public CompletableFuture<V> getIfPresent(K key) {
+        Slot<V> slot = table.get(key);
+        return slot == null || isExpired(slot, ticker.getAsLong()) ? null : slot.future;
+    }
+
+    /**
+     * Associates the value with the key, replacing any cached or loading value. Callers that
+     * already hold the future of a load in progress still receive its result.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws NullPointerException if the key or the value is {@code null}.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(value);
+        Slot<V> slot = new Slot<>();
+        slot.writeTime = ticker.getAsLong();
+        slot.future.complete(value);
+        table.put(key, slot);
+    }
+
+    /**
+     * Reloads the value of the key in the background. The current value, if any, is served
+     * until the reload completes; an absent key is loaded as by {@link #get(Object)}.
+     *
+     * @param key the key.
+     */
+    public void refresh(K key) {
+        Slot<V> slot = table.get(key);
+        if (slot != null && slot.hasValue() && slot.refreshing.compareAndSet(false, true)) {
+            reload(key, slot);
+        } else if (slot == null) {
+            get(key);
+        }
+    }
+
+    /**
+     * Removes the key. A load in progress still completes the futures already handed out, but
+     * its value is not cached.
+     *
+     * @param key the key.
+     */
+    public void invalidate(K key) {
+        table.remove(key);
+    }
+
+    /**
+     * Removes every expired entry now instead of when it is next requested.
+     */
+    public void cleanUp() {
+        if (expireAfterWriteNanos == 0) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        for (HashTable.Entry<K, Slot<V>> entry : table) {
+            Slot<V> slot = entry.getValue();
+            if (isExpired(slot, now)) {
+                table.computeIfPresent(entry.getKey(), (k, old) -> old == slot ? null : old);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys, including those whose value is still loading.
+     *
+     * @return the number of keys.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns the number of requests served by a cached or loading value.
+     *
+     * @return the hit count.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of requests that started a load.
+     *
+     * @return the miss count.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of times the loader was invoked, including refreshes.
+     *
+     * @return the load count.
+     */
+    public long loadCount() {
+        return loadCount.sum();
+    }
+
+    private boolean isExpired(Slot<V> slot, long now) {
+        return expireAfterWriteNanos > 0 && slot.hasValue()
+            && now - slot.writeTime >= expireAfterWriteNanos;
+    }
+
+    private void refreshIfStale(K key, Slot<V> slot, long now) {
+        if (refreshAfterWriteNanos > 0 && slot.hasValue()
+            && now - slot.writeTime >= refreshAfterWriteNanos
+            && slot.refreshing.compareAndSet(false, true)) {
+            reload(key, slot);
+        }
+    }
+
+    /**
+     * Runs the loader on the executor and completes the target with its result. If the
+     * executor rejects the load, or the load fails or returns {@code null}, the slot is removed
+     * unless it was already replaced.
+     *
+     * @param key    the key.
+     * @param slot   the slot that holds the target in the table.
+     * @param target the future to complete.
+     */
+    private void load(K key, Slot<V> slot, CompletableFuture<V> target) {
+        try {
+            executor.execute(() -> {
+                loadCount.increment();
+                V value;
+                try {
+                    value = loader.load(key);
+                } catch (Throwable t) {
+                    fail(key, slot, target, t);
+                    return;
+                }
+                slot.writeTime = ticker.getAsLong();
+                if (value == null) {
+                    table.computeIfPresent(key, (k, old) -> old == slot ? null : old);
+                }
+                target.complete(value);
+            });
+        } catch (RuntimeException e) {
+            fail(key, slot, target, e);
+        }
+    }
+
+    private void fail(K key, Slot<V> slot, CompletableFuture<V> target, Throwable failure) {
+        table.computeIfPresent(key, (k, old) -> old == slot ? null : old);
+        target.completeExceptionally(failure);
+    }
+
+    /**
+     * Loads a new value for a slot that still serves its old one, then swaps in a new slot if
+     * the old one is still current. A failed or {@code null} reload keeps the old value and
+     * allows the next stale request to try again.
+     *
+     * @param key  the key.
+     * @param slot the stale slot.
+     */
+    private void reload(K key, Slot<V> slot) {
+        Slot<V> fresh = new Slot<>();
+        fresh.future.whenComplete((value, failure) -> {
+            if (failure == null && value != null) {
+                table.computeIfPresent(key, (k, old) -> old == slot ? fresh : old);
+            } else {
+                slot.refreshing.set(false);
+            }
+        });
+        load(key, fresh, fresh.future);
+    }
+
+    /**
+     * Configures and creates an {@link AsyncLoadingCache}.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    public static final class Builder<K, V> {
+
+        private Executor executor = VIRTUAL_THREADS;
+        private long expireAfterWriteNanos;
+        private long refreshAfterWriteNanos;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Expires values the given time after they were loaded or put.
+         *
+         * @param duration the time to live.
+         * @return this builder.
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWriteNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Reloads a value in the background when it is requested and is older than the given
+         * time. It should be shorter than the expire-after-write time.
+         *
+         * @param duration the refresh interval.
+         * @return this builder.
+         */
+        public Builder<K, V> refreshAfterWrite(Duration duration) {
+            this.refreshAfterWriteNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the loader. By default every load runs on a new virtual
+         * thread. If the executor rejects a load, its future completes exceptionally with the
+         * executor's exception and the key is not cached.
+         *
+         * @param executor the executor.
+         * @return this builder.
+         */
+        public Builder<K, V> executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Sets the time source, in nanoseconds; mostly useful for tests.
+         *
+         * @param ticker the time source.
+         * @return this builder.
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Creates the cache.
+         *
+         * @param loader computes the values of absent keys.
+         * @return a new empty cache.
+         */
+        public AsyncLoadingCache<K, V> build(Loader<? super K, V> loader) {
+            return new AsyncLoadingCache<>(this, Objects.requireNonNull(loader));
+        }
+
+        private static long positiveNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            return duration.toNanos();
+        }
+    }
+}
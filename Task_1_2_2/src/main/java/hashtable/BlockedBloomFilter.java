@@ -0,0 +1,82 @@
+package hashtable;
+
+/**
+ * A blocked Bloom filter over key hashes that lets {@link HashTable} answer most lookups for
+ * absent keys without walking a chain.
+ *
+ * <p>The bits are grouped in blocks of 512 bits, one 64-byte cache line. A hash selects one
+ * block and sets one bit in each of its eight words, so a query reads a single cache line.
+ * With ten bits per key the false-positive rate is about one percent. Bits are never cleared;
+ * the owning table rebuilds the filter when it resizes.</p>
+ */
+final class BlockedBloomFilter {
+
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    private static final int BITS_PER_KEY = 10;
+    private static final int MAX_BLOCKS = 1 << 24;
+
+    private final long[] words;
+    private final int blocks;
+
+    /**
+     * Creates an empty filter for the given number of keys. Larger counts share the maximum of
+     * 16M blocks (1 GiB), which only raises the false-positive rate.
+     *
+     * @param expectedKeys the number of keys the filter should hold.
+     */
+    BlockedBloomFilter(long expectedKeys) {
+        long bits = Math.max(1, expectedKeys) * BITS_PER_KEY;
+        this.blocks = (int) Math.min((bits + BLOCK_BITS - 1) / BLOCK_BITS, MAX_BLOCKS);
+        this.words = new long[blocks * BLOCK_WORDS];
+    }
+
+    /**
+     * Adds a key hash.
+     *
+     * @param hash the hash code of the key.
+     */
+    void add(int hash) {
+        long h = fmix(hash & 0xFFFFFFFFL);
+        int base = blockOf(h);
+        long selectors = h * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < BLOCK_WORDS; i++) {
+            words[base + i] |= 1L << (selectors >>> (6 * i + 16));
+        }
+    }
+
+    /**
+     * Checks whether a key hash may have been added.
+     *
+     * @param hash the hash code of the key.
+     * @return {@code false} if the hash was definitely never added.
+     */
+    boolean mightContain(int hash) {
+        long h = fmix(hash & 0xFFFFFFFFL);
+        int base = blockOf(h);
+        long selectors = h * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < BLOCK_WORDS; i++) {
+            if ((words[base + i] & (1L << (selectors >>> (6 * i + 16)))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first word of the block, reducing the high half of the hash onto
+     * the block count with a multiplication instead of a division.
+     */
+    private int blockOf(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3.
+     */
+    private static long fmix(long x) {
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+}
@@ -0,0 +1,141 @@
+package hashtable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to and from their binary form for the tables that keep their
+ * contents outside the Java heap. The length of every encoded value is stored by the table,
+ * so a codec only has to write and read the payload.
+ *
+ * @param <T> the type of the encoded values.
+ */
+public interface Codec<T> {
+
+    /**
+     * Encodes {@code int} values as 4 big-endian bytes.
+     */
+    Codec<Integer> INT = new Codec<>() {
+        @Override
+        public int size(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int length) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * Encodes {@code long} values as 8 big-endian bytes.
+     */
+    Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int size(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int length) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * Encodes strings as UTF-8 bytes. Strings with an unpaired surrogate are rejected with an
+     * {@link IllegalArgumentException} by both {@link #size} and {@link #write}: they have no
+     * UTF-8 form, and replacing the surrogate would make distinct strings encode alike.
+     */
+    Codec<String> STRING = new Codec<>() {
+        @Override
+        public int size(String value) {
+            int bytes = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes += 1;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    throw new IllegalArgumentException("Unpaired surrogate at index " + i);
+                } else {
+                    bytes += 3;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public void write(String value, ByteBuffer buffer) {
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+            CharBuffer chars = CharBuffer.wrap(value);
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(buffer);
+            }
+            if (result.isMalformed()) {
+                throw new IllegalArgumentException("Unpaired surrogate at index "
+                    + chars.position());
+            }
+            if (result.isOverflow()) {
+                throw new BufferOverflowException();
+            }
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Returns the number of bytes {@link #write} will produce for the value.
+     *
+     * @param value the value.
+     * @return the encoded length in bytes.
+     * @throws IllegalArgumentException if the value cannot be encoded.
+     */
+    int size(T value);
+
+    /**
+     * Writes the encoded value at the buffer's position and advances it.
+     *
+     * @param value  the value.
+     * @param buffer the target buffer with at least {@link #size} bytes remaining.
+     * @throws IllegalArgumentException if the value cannot be encoded.
+     */
+    void write(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value of the given encoded length from the buffer's position and advances it.
+     *
+     * @param buffer the source buffer.
+     * @param length the encoded length in bytes.
+     * @return the decoded value.
+     */
+    T read(ByteBuffer buffer, int length);
+}
@@ -0,0 +1,649 @@
+package hashtable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe hash table that maps keys to values.
+ *
+ * <p>Reads are lock-free: bins are published through volatile array slots and chain nodes have
+ * volatile values and links. Inserting into an empty bin is a single CAS; every other write
+ * locks only the head node of its bin. When the table grows, the bins are split into the new
+ * array in strides, and any thread that runs into a bin which has already been moved helps to
+ * finish the transfer instead of waiting for it.</p>
+ *
+ * <p>Unlike {@link HashTable}, {@code null} keys and values are not permitted, because a
+ * {@code null} result from {@link #get(Object)} must unambiguously mean "absent". Iterators are
+ * weakly consistent: they never throw {@link java.util.ConcurrentModificationException} and
+ * reflect some, but not necessarily all, modifications made after their creation.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class ConcurrentHashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    private static final int MOVED = -1;
+    private static final int RESERVED = -2;
+
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    private volatile long threshold;
+    private final AtomicReference<Transfer<K, V>> transfer = new AtomicReference<>();
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * A chain node. The key and hash never change; the value and link are volatile so that
+     * readers never need a lock.
+     *
+     * @param <K> the type of the key.
+     * @param <V> the type of the value.
+     */
+    private static class Node<K, V> {
+
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Placed at the head of a bin whose contents have already been moved to the next table.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    private static final class ForwardingNode<K, V> extends Node<K, V> {
+
+        final Transfer<K, V> transfer;
+
+        ForwardingNode(Transfer<K, V> transfer) {
+            super(MOVED, null, null, null);
+            this.transfer = transfer;
+        }
+    }
+
+    /**
+     * Temporarily occupies an empty bin while {@link #compute} runs the user function, so that
+     * the function is called at most once and other writers to the bin wait on its lock.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    private static final class ReservationNode<K, V> extends Node<K, V> {
+
+        ReservationNode() {
+            super(RESERVED, null, null, null);
+        }
+    }
+
+    /**
+     * The shared state of a single resize that threads cooperate on.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    private static final class Transfer<K, V> {
+
+        final AtomicReferenceArray<Node<K, V>> source;
+        final AtomicReferenceArray<Node<K, V>> target;
+        final ForwardingNode<K, V> forward;
+        final AtomicInteger nextBin;
+        final AtomicInteger pendingBins;
+        final int stride;
+
+        Transfer(AtomicReferenceArray<Node<K, V>> source) {
+            int n = source.length();
+            this.source = source;
+            this.target = new AtomicReferenceArray<>(n << 1);
+            this.forward = new ForwardingNode<>(this);
+            this.nextBin = new AtomicInteger(0);
+            this.pendingBins = new AtomicInteger(n);
+            int cpus = Runtime.getRuntime().availableProcessors();
+            this.stride = Math.max(MIN_TRANSFER_STRIDE, n / (cpus * 8));
+        }
+    }
+
+    /**
+     * Constructs an empty hash table with the default initial capacity (16).
+     */
+    public ConcurrentHashTable() {
+        this.table = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+        this.threshold = (long) (DEFAULT_CAPACITY * LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the key's hash code so that the high bits take part in bin selection and the
+     * result is never negative (negative hashes are reserved for forwarding nodes).
+     *
+     * @param key the key.
+     * @return the spread hash.
+     */
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 0x7fffffff;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key without locking.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(Object key) {
+        Node<K, V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Locates the node for the key, following forwarding nodes into newer tables.
+     *
+     * @param key the key.
+     * @return the node, or {@code null} if the key is absent.
+     */
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> curr = tab.get(hash & (tab.length() - 1));
+            if (curr instanceof ForwardingNode<K, V> fwd) {
+                tab = fwd.transfer.target;
+                continue;
+            }
+            for (; curr != null; curr = curr.next) {
+                if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                    return curr;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws NullPointerException if the key or the value is {@code null}.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(value);
+        compute(key, (k, old) -> value);
+    }
+
+    /**
+     * Associates the value with the key only if the key is not already present. The check and
+     * the insertion happen atomically.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the previous value, or {@code null} if the value was inserted.
+     * @throws NullPointerException if the key or the value is {@code null}.
+     */
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        Object[] previous = new Object[1];
+        compute(key, (k, old) -> {
+            previous[0] = old;
+            return old == null ? value : old;
+        });
+        @SuppressWarnings("unchecked")
+        V result = (V) previous[0];
+        return result;
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        Object[] previous = new Object[1];
+        compute((K) key, (k, old) -> {
+            previous[0] = old;
+            return null;
+        });
+        return (V) previous[0];
+    }
+
+    /**
+     * Updates the value associated with the specified key.
+     *
+     * @param key   the key.
+     * @param value the new value.
+     * @throws NoSuchElementException if the key does not exist.
+     */
+    public void update(K key, V value) {
+        Objects.requireNonNull(value);
+        if (computeIfPresent(key, (k, old) -> value) == null) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+    }
+
+    /**
+     * Returns the value for the key, computing and inserting it first if the key is absent.
+     * The mapping function is invoked at most once, while the bin is locked.
+     *
+     * @param key             the key.
+     * @param mappingFunction computes the value for an absent key; may return {@code null} to
+     *                        leave the key absent.
+     * @return the current (existing or computed) value, or {@code null} if none.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return compute(key, (k, old) -> old != null ? old : mappingFunction.apply(k));
+    }
+
+    /**
+     * Recomputes the value of a present key. Returning {@code null} removes the key.
+     *
+     * @param key               the key.
+     * @param remappingFunction computes the new value from the key and the current value.
+     * @return the new value, or {@code null} if the key is absent or was removed.
+     */
+    public V computeIfPresent(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        if (!containsKey(key)) {
+            return null;
+        }
+        return compute(key, (k, old) -> old == null ? null : remappingFunction.apply(k, old));
+    }
+
+    /**
+     * Merges the value into the existing one, or inserts it if the key is absent.
+     *
+     * @param key               the key.
+     * @param value             the value to insert or merge.
+     * @param remappingFunction combines the current and the given value; returning
+     *                          {@code null} removes the key.
+     * @return the new value, or {@code null} if the key was removed.
+     */
+    public V merge(K key, V value,
+        BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, (k, old) -> old == null ? value : remappingFunction.apply(old, value));
+    }
+
+    /**
+     * Atomically computes a new value for the key from its current value ({@code null} if
+     * absent). Returning {@code null} removes the key. The function runs while the bin is
+     * locked, so it must be short and must not modify this table.
+     *
+     * @param key               the key.
+     * @param remappingFunction computes the new value.
+     * @return the new value, or {@code null} if the key is absent afterwards.
+     * @throws NullPointerException if the key is {@code null}.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(remappingFunction);
+        int hash = spread(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(index);
+            if (head instanceof ForwardingNode<K, V> fwd) {
+                helpTransfer(fwd.transfer);
+                tab = fwd.transfer.target;
+                continue;
+            }
+            V value = null;
+            int delta = 0;
+            boolean done = false;
+            if (head == null) {
+                Node<K, V> reservation = new ReservationNode<>();
+                synchronized (reservation) {
+                    if (tab.compareAndSet(index, null, reservation)) {
+                        Node<K, V> node = null;
+                        try {
+                            value = remappingFunction.apply(key, null);
+                            if (value != null) {
+                                node = new Node<>(hash, key, value, null);
+                                delta = 1;
+                            }
+                        } finally {
+                            tab.set(index, node);
+                        }
+                        done = true;
+                    }
+                }
+            } else {
+                synchronized (head) {
+                    if (tab.get(index) == head) {
+                        done = true;
+                        Node<K, V> prev = null;
+                        Node<K, V> curr = head;
+                        while (curr != null
+                            && (curr.hash != hash || !Objects.equals(curr.key, key))) {
+                            prev = curr;
+                            curr = curr.next;
+                        }
+                        value = remappingFunction.apply(key, curr == null ? null : curr.value);
+                        if (curr != null && value != null) {
+                            curr.value = value;
+                        } else if (curr != null) {
+                            if (prev == null) {
+                                tab.set(index, curr.next);
+                            } else {
+                                prev.next = curr.next;
+                            }
+                            delta = -1;
+                        } else if (value != null) {
+                            prev.next = new Node<>(hash, key, value, null);
+                            delta = 1;
+                        }
+                    }
+                }
+            }
+            if (done) {
+                if (delta != 0) {
+                    addCount(delta);
+                }
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table. Under concurrent updates the
+     * result is a moment-in-time estimate.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        long n = count.sum();
+        return n < 0 ? 0 : (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adjusts the element count and starts a resize if the load factor is exceeded. Never
+     * called while holding a bin lock, because helping a transfer locks other bins.
+     *
+     * @param delta the change in the number of elements.
+     */
+    private void addCount(int delta) {
+        count.add(delta);
+        if (delta > 0 && count.sum() >= threshold) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            if (tab.length() < MAXIMUM_CAPACITY) {
+                Transfer<K, V> running = transfer.get();
+                if (running != null) {
+                    helpTransfer(running);
+                } else if (table == tab) {
+                    Transfer<K, V> created = new Transfer<>(tab);
+                    if (transfer.compareAndSet(null, created)) {
+                        helpTransfer(created);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims strides of bins from the transfer and moves them until none are left. The thread
+     * that moves the last bin publishes the new table. A stride is claimed by a CAS that never
+     * moves the next bin past the end of the source, so threads that keep arriving after the
+     * last stride was taken do not advance it any further. A transfer whose source is no
+     * longer the current table is finished or stale; it is only cleared.
+     *
+     * @param tr the transfer to help with.
+     */
+    private void helpTransfer(Transfer<K, V> tr) {
+        int n = tr.source.length();
+        while (true) {
+            if (table != tr.source) {
+                transfer.compareAndSet(tr, null);
+                return;
+            }
+            int start = tr.nextBin.get();
+            if (start >= n) {
+                return;
+            }
+            int end = Math.min(start + tr.stride, n);
+            if (!tr.nextBin.compareAndSet(start, end)) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                moveBin(tr, i);
+            }
+            if (tr.pendingBins.addAndGet(start - end) == 0) {
+                if (table == tr.source) {
+                    table = tr.target;
+                    threshold = (long) (tr.target.length() * LOAD_FACTOR);
+                }
+                transfer.compareAndSet(tr, null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits a single bin of the source table into bins {@code i} and {@code i + n} of the
+     * target table. Nodes are copied rather than relinked so that concurrent readers still
+     * walking the old chain see a consistent list.
+     *
+     * @param tr the transfer.
+     * @param i  the bin index in the source table.
+     */
+    private void moveBin(Transfer<K, V> tr, int i) {
+        int n = tr.source.length();
+        while (true) {
+            Node<K, V> head = tr.source.get(i);
+            if (head == null) {
+                if (tr.source.compareAndSet(i, null, tr.forward)) {
+                    return;
+                }
+                continue;
+            }
+            if (head instanceof ForwardingNode) {
+                // A transfer that lost the race against a completed one; nothing to move.
+                return;
+            }
+            synchronized (head) {
+                if (tr.source.get(i) != head) {
+                    continue;
+                }
+                Node<K, V> lo = null;
+                Node<K, V> hi = null;
+                for (Node<K, V> curr = head; curr != null; curr = curr.next) {
+                    if ((curr.hash & n) == 0) {
+                        lo = new Node<>(curr.hash, curr.key, curr.value, lo);
+                    } else {
+                        hi = new Node<>(curr.hash, curr.key, curr.value, hi);
+                    }
+                }
+                tr.target.set(i, lo);
+                tr.target.set(i + n, hi);
+                tr.source.set(i, tr.forward);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcurrentHashTable<?, ?> other)) {
+            return false;
+        }
+        int matched = 0;
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!Objects.equals(entry.getValue(), other.get(entry.getKey()))) {
+                return false;
+            }
+            matched++;
+        }
+        return matched == other.size();
+    }
+
+    /**
+     * Returns the hash code value for this hash table.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (HashTable.Entry<K, V> entry : this) {
+            h += entry.hashCode();
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the entries in the hash table. The returned
+     * entries are snapshots; they do not change when the table is updated.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new ConcurrentHashTableIterator();
+    }
+
+    /**
+     * Weakly consistent iterator. Bins that have been forwarded are expanded into the two
+     * corresponding bins of the next table, so a concurrent resize neither hides nor repeats
+     * entries.
+     */
+    private class ConcurrentHashTableIterator implements Iterator<HashTable.Entry<K, V>> {
+
+        private final AtomicReferenceArray<Node<K, V>> root;
+        private final Deque<Object[]> pendingBins = new ArrayDeque<>();
+        private int rootIndex;
+        private Node<K, V> nextNode;
+
+        /**
+         * Constructs a new iterator over the current table.
+         */
+        ConcurrentHashTableIterator() {
+            root = table;
+            rootIndex = 0;
+            advance();
+        }
+
+        /**
+         * Moves to the next node, descending into newer tables through forwarding nodes.
+         */
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            if (nextNode != null) {
+                nextNode = nextNode.next;
+            }
+            while (nextNode == null) {
+                AtomicReferenceArray<Node<K, V>> tab;
+                int index;
+                if (!pendingBins.isEmpty()) {
+                    Object[] bin = pendingBins.pop();
+                    tab = (AtomicReferenceArray<Node<K, V>>) bin[0];
+                    index = (Integer) bin[1];
+                } else if (rootIndex < root.length()) {
+                    tab = root;
+                    index = rootIndex++;
+                } else {
+                    return;
+                }
+                Node<K, V> head = tab.get(index);
+                if (head instanceof ForwardingNode<K, V> fwd) {
+                    AtomicReferenceArray<Node<K, V>> target = fwd.transfer.target;
+                    pendingBins.push(new Object[] {target, index + tab.length()});
+                    pendingBins.push(new Object[] {target, index});
+                } else if (head != null && head.hash != RESERVED) {
+                    nextNode = head;
+                }
+            }
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         *
+         * @return {@code true} if the iterator has more entries.
+         */
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        /**
+         * Returns the next entry in the iteration.
+         *
+         * @return the next entry.
+         * @throws NoSuchElementException if the iteration has no more elements.
+         */
+        @Override
+        public HashTable.Entry<K, V> next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = nextNode;
+            advance();
+            return new HashTable.Entry<>(node.key, node.value, null);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package hashtable;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A hash table with bucketized cuckoo hashing, for lookups whose worst case must stay
+ * constant.
+ *
+ * <p>Every key has two candidate buckets of four slots, chosen by two hash functions, and is
+ * always stored in one of them. A lookup therefore inspects at most eight slots plus a small
+ * stash, never a chain whose length depends on the data. An insertion that finds both buckets
+ * full evicts a random resident to its other bucket, and so on; when a bounded number of
+ * evictions does not free a slot, the homeless entry goes to the stash.</p>
+ *
+ * <p>The table grows before it is 90% full, or rehashes with new hash functions when the
+ * stash grows past a few entries. The rehash is incremental: a new table is allocated and each
+ * later {@code put} or {@code remove} moves a few buckets into it. Lookups check both tables
+ * while the move is in progress, so they stay constant-time and no single operation pays for
+ * the whole rehash.</p>
+ *
+ * <p>The constant bound assumes the key hash codes are not degenerate: keys that share their
+ * full hash code also share both buckets, and those beyond the eighth end up in the stash. The
+ * table is not thread-safe.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class CuckooHashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final float MAX_LOAD = 0.9f;
+    private static final int MAX_KICKS = 500;
+    private static final int STASH_LIMIT = 4;
+    private static final int MIGRATION_STEP = 8;
+    private static final Object NULL_KEY = new Object();
+
+    private Table table;
+    private Table old;
+    private int migrated;
+    private Object[] stashKeys = new Object[STASH_LIMIT];
+    private Object[] stashValues = new Object[STASH_LIMIT];
+    private int[] stashHashes = new int[STASH_LIMIT];
+    private int stashSize;
+    private int stashTrigger = STASH_LIMIT;
+    private int size;
+    private int modCount;
+    private int random = 0x2545F491;
+
+    /**
+     * An entry that could not be placed, carried between the eviction loop and the stash.
+     */
+    private record Homeless(int hash, Object key, Object value) {
+    }
+
+    /**
+     * One cuckoo table: parallel arrays with {@value #SLOTS_PER_BUCKET} consecutive slots per
+     * bucket. An empty slot has a {@code null} key.
+     */
+    private final class Table {
+
+        final Object[] keys;
+        final Object[] values;
+        final int[] hashes;
+        final int mask;
+        final long seed;
+
+        Table(int buckets, long seed) {
+            this.keys = new Object[buckets * SLOTS_PER_BUCKET];
+            this.values = new Object[buckets * SLOTS_PER_BUCKET];
+            this.hashes = new int[buckets * SLOTS_PER_BUCKET];
+            this.mask = buckets - 1;
+            this.seed = seed;
+        }
+
+        int buckets() {
+            return mask + 1;
+        }
+
+        /**
+         * Returns both candidate buckets of a hash, packed as {@code first | second << 32}.
+         */
+        long bucketsOf(int hash) {
+            return fmix(seed ^ (hash & 0xFFFFFFFFL));
+        }
+
+        int find(int hash, Object key) {
+            long buckets = bucketsOf(hash);
+            int slot = findInBucket((int) buckets & mask, hash, key);
+            return slot >= 0 ? slot : findInBucket((int) (buckets >>> 32) & mask, hash, key);
+        }
+
+        private int findInBucket(int bucket, int hash, Object key) {
+            int start = bucket * SLOTS_PER_BUCKET;
+            for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+                if (hashes[slot] == hash && keys[slot] != null
+                    && Objects.equals(keys[slot], key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int freeSlot(int bucket) {
+            int start = bucket * SLOTS_PER_BUCKET;
+            for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+                if (keys[slot] == null) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Places an absent key, evicting residents along a random walk if both of its buckets
+         * are full.
+         *
+         * @return {@code null} on success, or the entry left without a slot.
+         */
+        Homeless insert(int hash, Object key, Object value) {
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                long buckets = bucketsOf(hash);
+                int first = (int) buckets & mask;
+                int second = (int) (buckets >>> 32) & mask;
+                int slot = freeSlot(first);
+                if (slot < 0) {
+                    slot = freeSlot(second);
+                }
+                if (slot >= 0) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    hashes[slot] = hash;
+                    return null;
+                }
+                int r = nextRandom();
+                int victim = ((r & 1) == 0 ? first : second) * SLOTS_PER_BUCKET
+                    + ((r >>> 1) & (SLOTS_PER_BUCKET - 1));
+                Object evictedKey = keys[victim];
+                Object evictedValue = values[victim];
+                int evictedHash = hashes[victim];
+                keys[victim] = key;
+                values[victim] = value;
+                hashes[victim] = hash;
+                key = evictedKey;
+                value = evictedValue;
+                hash = evictedHash;
+            }
+            return new Homeless(hash, key, value);
+        }
+
+        void clear(int slot) {
+            keys[slot] = null;
+            values[slot] = null;
+        }
+    }
+
+    /**
+     * Constructs an empty hash table with the default initial capacity.
+     */
+    public CuckooHashTable() {
+        this(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty hash table that holds the expected number of entries without
+     * rehashing.
+     *
+     * @param expectedSize the expected number of entries.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public CuckooHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        int slots = HashCommon.arraySize(expectedSize + 1, MAX_LOAD);
+        this.table = new Table(Math.max(1, slots / SLOTS_PER_BUCKET), nextSeed());
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3.
+     */
+    private static long fmix(long x) {
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+
+    private int nextRandom() {
+        int x = random;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        random = x;
+        return x;
+    }
+
+    private long nextSeed() {
+        return ((long) nextRandom() << 32) ^ nextRandom();
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unmaskNull(Object key) {
+        return key == NULL_KEY ? null : (T) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T value(Object value) {
+        return (T) value;
+    }
+
+    private int findInStash(int hash, Object key) {
+        for (int i = 0; i < stashSize; i++) {
+            if (stashHashes[i] == hash && Objects.equals(stashKeys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        migrate();
+        Object k = maskNull(key);
+        int hash = HashTable.hash(key);
+        int slot = table.find(hash, k);
+        if (slot >= 0) {
+            table.values[slot] = value;
+            return;
+        }
+        if (old != null && (slot = old.find(hash, k)) >= 0) {
+            old.values[slot] = value;
+            return;
+        }
+        if ((slot = findInStash(hash, k)) >= 0) {
+            stashValues[slot] = value;
+            return;
+        }
+        if (old == null && size + 1 > table.keys.length * MAX_LOAD) {
+            startRehash(table.buckets() * 2);
+        }
+        place(hash, k, value);
+        size++;
+        modCount++;
+        if (old == null && stashSize > stashTrigger) {
+            startRehash(size + 1 > table.keys.length * MAX_LOAD / 2
+                ? table.buckets() * 2 : table.buckets());
+        }
+    }
+
+    /**
+     * Inserts an absent key into the current table, or into the stash if no slot is found.
+     */
+    private void place(int hash, Object key, Object value) {
+        Homeless homeless = table.insert(hash, key, value);
+        if (homeless != null) {
+            if (stashSize == stashKeys.length) {
+                stashKeys = Arrays.copyOf(stashKeys, stashSize * 2);
+                stashValues = Arrays.copyOf(stashValues, stashSize * 2);
+                stashHashes = Arrays.copyOf(stashHashes, stashSize * 2);
+            }
+            stashKeys[stashSize] = homeless.key();
+            stashValues[stashSize] = homeless.value();
+            stashHashes[stashSize] = homeless.hash();
+            stashSize++;
+        }
+    }
+
+    /**
+     * Starts moving the entries into a new table with fresh hash functions.
+     *
+     * @param buckets the number of buckets of the new table.
+     */
+    private void startRehash(int buckets) {
+        old = table;
+        table = new Table(buckets, nextSeed());
+        migrated = 0;
+        modCount++;
+    }
+
+    /**
+     * Moves the next few buckets of the old table, if a rehash is in progress. Once the old
+     * table is empty, the stashed entries are given another chance in the new one.
+     */
+    private void migrate() {
+        if (old == null) {
+            return;
+        }
+        int end = Math.min(old.buckets(), migrated + MIGRATION_STEP);
+        for (; migrated < end; migrated++) {
+            int start = migrated * SLOTS_PER_BUCKET;
+            for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+                if (old.keys[slot] != null) {
+                    place(old.hashes[slot], old.keys[slot], old.values[slot]);
+                    old.clear(slot);
+                }
+            }
+        }
+        if (migrated == old.buckets()) {
+            old = null;
+            int stashed = stashSize;
+            stashSize = 0;
+            for (int i = 0; i < stashed; i++) {
+                Object key = stashKeys[i];
+                Object value = stashValues[i];
+                stashKeys[i] = null;
+                stashValues[i] = null;
+                place(stashHashes[i], key, value);
+            }
+            stashTrigger = STASH_LIMIT + stashSize;
+        }
+        modCount++;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(Object key, V defaultValue) {
+        Object k = maskNull(key);
+        int hash = HashTable.hash(key);
+        int slot = table.find(hash, k);
+        if (slot >= 0) {
+            return value(table.values[slot]);
+        }
+        if (old != null && (slot = old.find(hash, k)) >= 0) {
+            return value(old.values[slot]);
+        }
+        if (stashSize > 0 && (slot = findInStash(hash, k)) >= 0) {
+            return value(stashValues[slot]);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        Object k = maskNull(key);
+        int hash = HashTable.hash(key);
+        return table.find(hash, k) >= 0
+            || old != null && old.find(hash, k) >= 0
+            || stashSize > 0 && findInStash(hash, k) >= 0;
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    public V remove(Object key) {
+        migrate();
+        Object k = maskNull(key);
+        int hash = HashTable.hash(key);
+        V removed;
+        int slot = table.find(hash, k);
+        if (slot >= 0) {
+            removed = value(table.values[slot]);
+            table.clear(slot);
+        } else if (old != null && (slot = old.find(hash, k)) >= 0) {
+            removed = value(old.values[slot]);
+            old.clear(slot);
+        } else if ((slot = findInStash(hash, k)) >= 0) {
+            removed = value(stashValues[slot]);
+            stashSize--;
+            stashKeys[slot] = stashKeys[stashSize];
+            stashValues[slot] = stashValues[stashSize];
+            stashHashes[slot] = stashHashes[stashSize];
+            stashKeys[stashSize] = null;
+            stashValues[stashSize] = null;
+        } else {
+            return null;
+        }
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of entries that are in the stash instead of a bucket.
+     *
+     * @return the stash size.
+     */
+    int stashSize() {
+        return stashSize;
+    }
+
+    /**
+     * Returns whether an incremental rehash is in progress.
+     *
+     * @return {@code true} while entries are being moved to a new table.
+     */
+    boolean isRehashing() {
+        return old != null;
+    }
+
+    /**
+     * Returns an iterator over the entries. It is fail-fast and does not support removal.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private final Table current = table;
+            private final Table previous = old;
+            private final int expectedModCount = modCount;
+            private int position = -1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public HashTable.Entry<K, V> next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                while (true) {
+                    position++;
+                    Object[] keys;
+                    Object[] values;
+                    int index = position;
+                    if (index < current.keys.length) {
+                        keys = current.keys;
+                        values = current.values;
+                    } else if (previous != null
+                        && (index -= current.keys.length) < previous.keys.length) {
+                        keys = previous.keys;
+                        values = previous.values;
+                    } else {
+                        index = position - current.keys.length
+                            - (previous == null ? 0 : previous.keys.length);
+                        keys = stashKeys;
+                        values = stashValues;
+                    }
+                    if (keys[index] != null) {
+                        return new HashTable.Entry<>(unmaskNull(keys[index]),
+                            value(values[index]), null);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the hash code value for this hash table, computed like that of
+     * {@link HashTable}.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (HashTable.Entry<K, V> entry : this) {
+            h += entry.hashCode();
+        }
+        return h;
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CuckooHashTable<?, ?> other) || size != other.size) {
+            return false;
+        }
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!other.containsKey(entry.getKey())
+                || !Objects.equals(entry.getValue(), other.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
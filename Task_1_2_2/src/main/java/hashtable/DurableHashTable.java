@@ -0,0 +1,326 @@
+package hashtable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash table that survives restarts: a memory-mapped {@link HashTableSnapshot} holds the
+ * bulk of the entries and a {@link WriteLog} records every change made since the snapshot was
+ * taken.
+ *
+ * <p>Opening the table maps the snapshot without decoding it and replays the log into a small
+ * in-memory overlay, so a warm start costs the time to read the log rather than the time to
+ * rebuild every entry. Lookups consult the overlay first and fall back to the snapshot.
+ * {@link #checkpoint()} folds the overlay into a new snapshot and empties the log.</p>
+ *
+ * <p>A crash between writing the new snapshot and clearing the log is harmless: the rename of
+ * the new snapshot is forced to disk, directory entry included, before the log is truncated,
+ * and replaying the old log over the new snapshot produces the same contents.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class DurableHashTable<K, V> implements Iterable<HashTable.Entry<K, V>>, AutoCloseable {
+
+    private static final String SNAPSHOT_FILE = "table.snapshot";
+    private static final String LOG_FILE = "table.log";
+    private static final Object REMOVED = new Object();
+
+    private final Path snapshotFile;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final WriteLog<K, V> log;
+    private HashTableSnapshot<K, V> snapshot;
+    private HashTable<K, Object> overlay = new HashTable<>();
+    private int size;
+    private int modCount;
+
+    private DurableHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec)
+        throws IOException {
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.log = new WriteLog<>(directory.resolve(LOG_FILE), keyCodec, valueCodec);
+        if (Files.exists(snapshotFile)) {
+            try {
+                snapshot = HashTableSnapshot.open(snapshotFile, keyCodec, valueCodec);
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(e);
+                throw e;
+            }
+            size = snapshot.size();
+        }
+    }
+
+    /**
+     * Closes the log after opening the table failed, keeping the original failure.
+     *
+     * @param failure the exception that made opening fail.
+     */
+    private void closeQuietly(Exception failure) {
+        try {
+            log.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Opens the table stored in the directory, creating an empty one if there is none.
+     *
+     * @param directory  the directory holding the snapshot and the log.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @return the opened table.
+     * @throws IOException if an I/O error occurs or the snapshot is corrupt.
+     */
+    public static <K, V> DurableHashTable<K, V> open(Path directory, Codec<K> keyCodec,
+        Codec<V> valueCodec) throws IOException {
+        Files.createDirectories(directory);
+        DurableHashTable<K, V> table = new DurableHashTable<>(directory, keyCodec, valueCodec);
+        try {
+            table.log.replay(new WriteLog.Listener<>() {
+                @Override
+                public void put(K key, V value) {
+                    table.apply(key, value);
+                }
+
+                @Override
+                public void remove(K key) {
+                    table.apply(key, REMOVED);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            table.closeQuietly(e);
+            throw e;
+        }
+        return table;
+    }
+
+    /**
+     * Records the new state of a key in the overlay and keeps the size up to date.
+     *
+     * @param key   the key.
+     * @param value the new value, or {@link #REMOVED}.
+     */
+    private void apply(K key, Object value) {
+        boolean existed = containsKey(key);
+        if (existed && value == REMOVED) {
+            size--;
+        } else if (!existed && value != REMOVED) {
+            size++;
+        }
+        overlay.put(key, value);
+        modCount++;
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws IOException              if the change cannot be logged.
+     * @throws IllegalArgumentException if the key or value cannot be encoded.
+     */
+    public void put(K key, V value) throws IOException {
+        log.appendPut(key, value);
+        apply(key, value);
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     * @throws IOException if the change cannot be logged.
+     */
+    public V remove(K key) throws IOException {
+        if (!containsKey(key)) {
+            return null;
+        }
+        V old = get(key);
+        log.appendRemove(key);
+        apply(key, REMOVED);
+        return old;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (overlay.containsKey(key)) {
+            Object value = overlay.get(key);
+            return value == REMOVED ? null : (V) value;
+        }
+        return snapshot == null ? null : snapshot.get(key);
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(K key) {
+        if (overlay.containsKey(key)) {
+            return overlay.get(key) != REMOVED;
+        }
+        return snapshot != null && snapshot.containsKey(key);
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of changes made since the last checkpoint.
+     *
+     * @return the number of keys held in memory.
+     */
+    public int pendingChanges() {
+        return overlay.size();
+    }
+
+    /**
+     * Forces the logged changes to the disk.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void sync() throws IOException {
+        log.sync();
+    }
+
+    /**
+     * Writes the current contents to a new snapshot, maps it and clears the log. The log is
+     * only cleared once the new snapshot is durably in place.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void checkpoint() throws IOException {
+        HashTableSnapshot.write(this, size, snapshotFile, keyCodec, valueCodec);
+        snapshot = HashTableSnapshot.open(snapshotFile, keyCodec, valueCodec);
+        log.clear();
+        overlay = new HashTable<>();
+        modCount++;
+    }
+
+    /**
+     * Closes the log. Changes that were not synced may be lost if the machine crashes, but not
+     * if only the process exits.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Returns an iterator over the entries: first the changed ones, then the snapshot entries
+     * that were not changed.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new DurableIterator();
+    }
+
+    /**
+     * Fail-fast iterator that merges the overlay with the snapshot.
+     */
+    private class DurableIterator implements Iterator<HashTable.Entry<K, V>> {
+
+        private final int expectedModCount = modCount;
+        private final Iterator<HashTable.Entry<K, Object>> changed = overlay.iterator();
+        private final Iterator<HashTable.Entry<K, V>> saved =
+            snapshot == null ? null : snapshot.iterator();
+        private HashTable.Entry<K, V> nextEntry;
+
+        DurableIterator() {
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            nextEntry = null;
+            while (changed.hasNext()) {
+                HashTable.Entry<K, Object> entry = changed.next();
+                if (entry.getValue() != REMOVED) {
+                    nextEntry = new HashTable.Entry<>(entry.getKey(), (V) entry.getValue(), null);
+                    return;
+                }
+            }
+            while (saved != null && saved.hasNext()) {
+                HashTable.Entry<K, V> entry = saved.next();
+                if (!overlay.containsKey(entry.getKey())) {
+                    nextEntry = entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        /**
+         * Returns the next entry in the iteration.
+         *
+         * @return the next entry.
+         * @throws ConcurrentModificationException if the hash table was modified after the iterator
+         *                                         was created.
+         * @throws NoSuchElementException          if the iteration has no more elements.
+         */
+        @Override
+        public HashTable.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextEntry == null) {
+                throw new NoSuchElementException();
+            }
+            HashTable.Entry<K, V> entry = nextEntry;
+            advance();
+            return entry;
+        }
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
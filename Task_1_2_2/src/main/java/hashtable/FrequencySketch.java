@@ -0,0 +1,95 @@
+package hashtable;
+
+/**
+ * A count-min sketch of 4-bit counters that estimates how often keys were seen recently. It
+ * backs the TinyLFU admission policy of {@link HashTableCache}.
+ *
+ * <p>Each key maps to one counter in each of four 64-bit words; its frequency is the smallest
+ * of the four. Once the number of increments reaches ten times the cache size, every counter
+ * is halved, so the estimates follow changes in popularity.</p>
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private static final int MAX_TABLE_SIZE = 1 << 22;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch for a cache of the given maximum size. Very large caches share a table
+     * of 4M words (32 MiB), which only makes the estimates slightly coarser.
+     *
+     * @param maximumSize the maximum number of cache entries.
+     */
+    FrequencySketch(long maximumSize) {
+        int capped = (int) Math.min(Math.max(maximumSize, 1), MAX_TABLE_SIZE);
+        int length = Integer.highestOneBit(capped - 1) << 1;
+        this.table = new long[Math.max(length, 8)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capped;
+    }
+
+    /**
+     * Returns the estimated number of recent occurrences of the key, at most 15.
+     *
+     * @param key the key.
+     * @return the estimated frequency.
+     */
+    int frequency(Object key) {
+        int hash = HashCommon.mix(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & MAX_COUNT);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of the key.
+     *
+     * @param key the key.
+     */
+    void increment(Object key) {
+        int hash = HashCommon.mix(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long mask = (long) MAX_COUNT << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * Halves every counter.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+}
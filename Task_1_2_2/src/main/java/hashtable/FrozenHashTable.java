@@ -0,0 +1,405 @@
+package hashtable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable hash table built with a minimal perfect hash function, for maps that are built
+ * once and then only read. Instances are created by {@link HashTable#freeze()}.
+ *
+ * <p>The keys and values are packed into two arrays with exactly one slot per entry. The slot of
+ * a key is found with the hash-and-displace scheme of CHD: the key hash selects a bucket of
+ * a few keys, and the bucket's displacement selects a hash function that sends each of
+ * its keys to a distinct free slot. A bucket holding a single key stores the slot directly.
+ * A lookup is therefore two array reads and one {@code equals} call, with no chains and no
+ * probing, and the table costs one {@code int} per bucket on top of the two arrays.</p>
+ *
+ * <p>Distinct keys with identical hash codes cannot be separated by any displacement; the rare
+ * extra keys are kept in a small overflow table.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public final class FrozenHashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final long DENSE_KEYS_THRESHOLD = (long) (0.6 * (1L << 32));
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] displacements;
+    private final HashTable<K, V> overflow;
+    private final int size;
+    private final int hashCode;
+
+    /**
+     * Builds the perfect hash function for the entries of the source table.
+     *
+     * @param source the table to freeze.
+     */
+    FrozenHashTable(HashTable<K, V> source) {
+        int count = source.size();
+        int[] hashes = new int[count];
+        Object[] entryKeys = new Object[count];
+        Object[] entryValues = new Object[count];
+        int i = 0;
+        for (HashTable.Entry<K, V> entry : source) {
+            hashes[i] = entry.hash;
+            entryKeys[i] = entry.key;
+            entryValues[i] = entry.value;
+            i++;
+        }
+        this.size = count;
+        this.hashCode = source.hashCode();
+
+        int bucketCount = Math.max(1, (count + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+        int[] bucketStart = new int[bucketCount + 1];
+        for (int hash : hashes) {
+            bucketStart[bucketOf(hash, bucketCount) + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] members = new int[count];
+        int[] fill = bucketStart.clone();
+        for (int e = 0; e < count; e++) {
+            members[fill[bucketOf(hashes[e], bucketCount)]++] = e;
+        }
+
+        HashTable<K, V> extra = null;
+        int[] bucketSize = new int[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            int end = bucketStart[b];
+            for (int m = bucketStart[b]; m < bucketStart[b + 1]; m++) {
+                if (hasHash(hashes, members, bucketStart[b], end, hashes[members[m]])) {
+                    if (extra == null) {
+                        extra = new HashTable<>();
+                    }
+                    extra.put(key(entryKeys[members[m]]), value(entryValues[members[m]]));
+                } else {
+                    members[end++] = members[m];
+                }
+            }
+            bucketSize[b] = end - bucketStart[b];
+        }
+        this.overflow = extra;
+
+        int slots = count - (extra == null ? 0 : extra.size());
+        this.keys = new Object[slots];
+        this.values = new Object[slots];
+        this.displacements = new int[bucketCount];
+        boolean[] taken = new boolean[slots];
+        int[] candidate = new int[bucketCount == 0 ? 0 : maxOf(bucketSize)];
+        int nextFree = 0;
+        for (int b : bucketsBySizeDescending(bucketSize)) {
+            int start = bucketStart[b];
+            int length = bucketSize[b];
+            if (length == 0) {
+                continue;
+            }
+            if (length == 1) {
+                while (taken[nextFree]) {
+                    nextFree++;
+                }
+                place(members[start], nextFree, taken, entryKeys, entryValues);
+                displacements[b] = -nextFree - 1;
+                continue;
+            }
+            for (int d = 1; ; d++) {
+                if (fits(hashes, members, start, length, d, slots, taken, candidate)) {
+                    for (int m = 0; m < length; m++) {
+                        place(members[start + m], candidate[m], taken, entryKeys, entryValues);
+                    }
+                    displacements[b] = d;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean hasHash(int[] hashes, int[] members, int from, int to, int hash) {
+        for (int m = from; m < to; m++) {
+            if (hashes[members[m]] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int maxOf(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Orders the buckets from the largest to the smallest with a counting sort, so the buckets
+     * that are hardest to place are placed while most slots are still free.
+     */
+    private static int[] bucketsBySizeDescending(int[] bucketSize) {
+        int max = maxOf(bucketSize);
+        int[] start = new int[max + 2];
+        for (int length : bucketSize) {
+            start[max - length + 1]++;
+        }
+        for (int s = 0; s <= max; s++) {
+            start[s + 1] += start[s];
+        }
+        int[] order = new int[bucketSize.length];
+        for (int b = 0; b < bucketSize.length; b++) {
+            order[start[max - bucketSize[b]]++] = b;
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether displacement {@code d} sends every key of a bucket to a distinct free slot,
+     * recording the slots in {@code candidate}.
+     */
+    private static boolean fits(int[] hashes, int[] members, int start, int length, int d,
+        int slots, boolean[] taken, int[] candidate) {
+        for (int m = 0; m < length; m++) {
+            int slot = slotOf(hashes[members[start + m]], d, slots);
+            if (taken[slot]) {
+                return false;
+            }
+            for (int other = 0; other < m; other++) {
+                if (candidate[other] == slot) {
+                    return false;
+                }
+            }
+            candidate[m] = slot;
+        }
+        return true;
+    }
+
+    private void place(int entry, int slot, boolean[] taken, Object[] entryKeys,
+        Object[] entryValues) {
+        taken[slot] = true;
+        keys[slot] = entryKeys[entry];
+        values[slot] = entryValues[entry];
+    }
+
+    /**
+     * Selects the bucket of a key. Following PTHash, sixty percent of the keys go to the first
+     * thirty percent of the buckets; these dense buckets are placed while the table is still
+     * empty, and the sparse remainder is mostly single keys that are placed directly.
+     */
+    private static int bucketOf(int hash, int bucketCount) {
+        long x = fmix(hash & 0xFFFFFFFFL);
+        int dense = (int) Math.max(1, bucketCount * 3L / 10);
+        int sparse = bucketCount - dense;
+        int h = (int) (x >>> 32);
+        if (sparse == 0 || (x & 0xFFFFFFFFL) < DENSE_KEYS_THRESHOLD) {
+            return reduce(h, dense);
+        }
+        return dense + reduce(h, sparse);
+    }
+
+    /**
+     * Selects the slot of a key under a displacement. The key hash and the displacement are
+     * combined before the finalizer, so two keys that collide under one displacement are
+     * independent under the next.
+     */
+    private static int slotOf(int hash, int displacement, int slots) {
+        long x = fmix(((long) displacement << 32) | (hash & 0xFFFFFFFFL));
+        return reduce((int) (x >>> 32), slots);
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3.
+     */
+    private static long fmix(long x) {
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+
+    /**
+     * Maps a hash uniformly onto {@code [0, n)} with a multiplication instead of a division.
+     */
+    private static int reduce(int hash, int n) {
+        return (int) (((hash & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    /**
+     * Returns the slot that would hold the key, without checking that it does.
+     *
+     * @param hash the hash code of the key.
+     * @return the slot index, or {@code -1} if the table has no slots.
+     */
+    private int slotFor(int hash) {
+        if (keys.length == 0) {
+            return -1;
+        }
+        int d = displacements[bucketOf(hash, displacements.length)];
+        return d < 0 ? -d - 1 : slotOf(hash, d, keys.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T key(Object key) {
+        return (T) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T value(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(Object key, V defaultValue) {
+        int slot = slotFor(HashTable.hash(key));
+        if (slot >= 0 && Objects.equals(keys[slot], key)) {
+            return value(values[slot]);
+        }
+        if (overflow != null && overflow.containsKey(key)) {
+            return overflow.get(key);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        int slot = slotFor(HashTable.hash(key));
+        return slot >= 0 && Objects.equals(keys[slot], key)
+            || overflow != null && overflow.containsKey(key);
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a mutable copy of this table.
+     *
+     * @return a new hash table with the same entries.
+     */
+    public HashTable<K, V> toHashTable() {
+        HashTable<K, V> table = new HashTable<>(size);
+        for (HashTable.Entry<K, V> entry : this) {
+            table.put(entry.key, entry.value);
+        }
+        return table;
+    }
+
+    /**
+     * Returns an iterator over the entries in slot order.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private int slot;
+            private final Iterator<HashTable.Entry<K, V>> extra =
+                overflow == null ? null : overflow.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return slot < keys.length || extra != null && extra.hasNext();
+            }
+
+            @Override
+            public HashTable.Entry<K, V> next() {
+                if (slot < keys.length) {
+                    HashTable.Entry<K, V> entry =
+                        new HashTable.Entry<>(key(keys[slot]), value(values[slot]), null);
+                    slot++;
+                    return entry;
+                }
+                if (extra == null) {
+                    throw new NoSuchElementException();
+                }
+                return extra.next();
+            }
+        };
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FrozenHashTable<?, ?> other)) {
+            return false;
+        }
+        if (size != other.size || hashCode != other.hashCode) {
+            return false;
+        }
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!other.containsKey(entry.key)
+                || !Objects.equals(entry.value, other.get(entry.key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this hash table, equal to that of the table it was
+     * frozen from.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
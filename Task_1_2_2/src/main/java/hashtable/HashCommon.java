@@ -0,0 +1,183 @@
+package hashtable;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Helpers shared by the open-addressing tables in this package.
+ */
+final class HashCommon {
+
+    /**
+     * The load factor of the open-addressing tables.
+     */
+    static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The expected size used by the no-argument constructors.
+     */
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The largest power-of-two array length the tables will allocate.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private static final int INT_PHI = 0x9E3779B9;
+    private static final long LONG_PHI = 0x9E3779B97F4A7C15L;
+
+    private HashCommon() {
+    }
+
+    /**
+     * Scrambles an int so that keys which differ only in their high bits, or which are
+     * sequential, still spread over a power-of-two table.
+     *
+     * @param x the value to mix.
+     * @return the mixed value.
+     */
+    static int mix(int x) {
+        int h = x * INT_PHI;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Scrambles a long down to an int hash.
+     *
+     * @param x the value to mix.
+     * @return the mixed value.
+     */
+    static int mix(long x) {
+        long h = x * LONG_PHI;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    /**
+     * Hashes a range of bytes eight at a time.
+     *
+     * @param buffer the buffer holding the bytes.
+     * @param offset the absolute index of the first byte.
+     * @param length the number of bytes.
+     * @return the hash.
+     */
+    static int hashBytes(ByteBuffer buffer, int offset, int length) {
+        long h = length * LONG_PHI;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            h = Long.rotateLeft(h ^ buffer.getLong(offset + i) * LONG_PHI, 31) * LONG_PHI;
+        }
+        for (; i < length; i++) {
+            h = (h ^ buffer.get(offset + i)) * LONG_PHI;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Hashes a key under a secret seed, so that collisions cannot be chosen without knowing
+     * it. {@code String} keys are hashed with SipHash-1-3 over their characters; other keys
+     * have their hash code mixed with the seed, which cannot separate equal hash codes.
+     *
+     * @param key   the key, or {@code null}.
+     * @param seed0 the first half of the 128-bit seed.
+     * @param seed1 the second half of the 128-bit seed.
+     * @return the keyed hash.
+     */
+    static int keyedHash(Object key, long seed0, long seed1) {
+        if (key instanceof String s) {
+            long h = sipHash(s, seed0, seed1);
+            return (int) (h ^ (h >>> 32));
+        }
+        long h = (Objects.hashCode(key) & 0xFFFFFFFFL) ^ seed0;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= (h >>> 33) ^ seed1;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * SipHash-1-3 over the UTF-16 code units of a string, packed little-endian four to a
+     * word: one compression round per word and three finalization rounds.
+     *
+     * @param s  the string.
+     * @param k0 the first half of the key.
+     * @param k1 the second half of the key.
+     * @return the 64-bit hash.
+     */
+    static long sipHash(CharSequence s, long k0, long k1) {
+        long v0 = k0 ^ 0x736F6D6570736575L;
+        long v1 = k1 ^ 0x646F72616E646F6DL;
+        long v2 = k0 ^ 0x6C7967656E657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+        int length = s.length();
+        int words = length / 4 + 1;
+        for (int w = 0; w < words; w++) {
+            long m = 0;
+            int start = w * 4;
+            int end = Math.min(start + 4, length);
+            for (int i = start; i < end; i++) {
+                m |= (long) s.charAt(i) << ((i - start) * 16);
+            }
+            if (w == words - 1) {
+                m |= (long) (length * 2) << 56;
+            }
+            v3 ^= m;
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13) ^ v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16) ^ v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21) ^ v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17) ^ v2;
+            v2 = Long.rotateLeft(v2, 32);
+            v0 ^= m;
+        }
+        v2 ^= 0xFF;
+        for (int r = 0; r < 3; r++) {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13) ^ v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16) ^ v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21) ^ v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17) ^ v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    /**
+     * Returns the power-of-two array length that holds the expected number of elements
+     * without exceeding the load factor.
+     *
+     * @param expected   the expected number of elements.
+     * @param loadFactor the load factor.
+     * @return the array length.
+     * @throws IllegalArgumentException if the required length is too large.
+     */
+    static int arraySize(int expected, float loadFactor) {
+        long required = Math.max(2, (long) Math.ceil(expected / (double) loadFactor));
+        long size = Long.highestOneBit(required - 1) << 1;
+        if (size > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("Too large (" + expected
+                + " expected elements with load factor " + loadFactor + ")");
+        }
+        return (int) Math.max(2, size);
+    }
+
+    /**
+     * Returns the number of elements that may be stored in an array of the given length
+     * before it has to grow. At least one slot is always kept free so probing terminates.
+     *
+     * @param n          the array length.
+     * @param loadFactor the load factor.
+     * @return the maximum fill.
+     */
+    static int maxFill(int n, float loadFactor) {
+        return Math.min((int) Math.ceil(n * loadFactor), n - 1);
+    }
+}
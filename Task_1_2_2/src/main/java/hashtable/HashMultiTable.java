@@ -0,0 +1,444 @@
+package hashtable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A hash table that maps each key to a list of values, for indexes where one key has many
+ * values.
+ *
+ * <p>The values are stored in the key's node itself rather than in a collection per key: a key
+ * with one value keeps it inline, and a key with several keeps them in a plain array that
+ * doubles as it fills and is dropped again when a single value remains. Compared with a
+ * {@code HashTable<K, List<V>>}, this saves the list object for every key and the array for
+ * every key with only one value.</p>
+ *
+ * <p>Values keep their insertion order within a key, and the same pair may be added more than
+ * once. {@link #get(Object)} returns a read-only view that follows later changes to the key.
+ * {@code null} keys and values are permitted.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class HashMultiTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int INITIAL_VALUES = 4;
+
+    private Node<K>[] table;
+    private int capacity;
+    private int keyCount;
+    private int size;
+    private int modCount;
+
+    /**
+     * A key and its values. With one value, {@code values} is the value itself; with more, it
+     * is an {@code Object[]} whose first {@code count} elements are used.
+     *
+     * @param <K> the type of the key.
+     */
+    private static final class Node<K> {
+
+        final int hash;
+        final K key;
+        Object values;
+        int count;
+        Node<K> next;
+
+        Node(int hash, K key, Object value, Node<K> next) {
+            this.hash = hash;
+            this.key = key;
+            this.values = value;
+            this.count = 1;
+            this.next = next;
+        }
+
+        Object valueAt(int index) {
+            return count == 1 ? values : ((Object[]) values)[index];
+        }
+
+        void add(Object value) {
+            if (count == 1) {
+                Object[] array = new Object[INITIAL_VALUES];
+                array[0] = values;
+                values = array;
+            } else if (count == ((Object[]) values).length) {
+                values = Arrays.copyOf((Object[]) values, count * 2);
+            }
+            ((Object[]) values)[count++] = value;
+        }
+
+        int indexOf(Object value) {
+            for (int i = 0; i < count; i++) {
+                if (Objects.equals(valueAt(i), value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Removes the value at the index. The node must have at least two values.
+         */
+        void removeAt(int index) {
+            Object[] array = (Object[]) values;
+            System.arraycopy(array, index + 1, array, index, count - index - 1);
+            array[--count] = null;
+            if (count == 1) {
+                values = array[0];
+            }
+        }
+    }
+
+    /**
+     * Constructs an empty hash table with the default initial capacity (16).
+     */
+    @SuppressWarnings("unchecked")
+    public HashMultiTable() {
+        this.capacity = DEFAULT_CAPACITY;
+        this.table = new Node[capacity];
+    }
+
+    private int indexFor(int hash) {
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+
+    private Node<K> find(int hash, Object key) {
+        for (Node<K> curr = table[indexFor(hash)]; curr != null; curr = curr.next) {
+            if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                return curr;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T value(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Appends a value to the values of the key.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        int hash = HashTable.hash(key);
+        Node<K> node = find(hash, key);
+        if (node != null) {
+            node.add(value);
+        } else {
+            if (keyCount + 1 >= capacity * LOAD_FACTOR) {
+                resize();
+            }
+            int index = indexFor(hash);
+            table[index] = new Node<>(hash, key, value, table[index]);
+            keyCount++;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Returns the values of the key in insertion order, as a read-only view that reflects later
+     * changes. The view is empty while the key is absent.
+     *
+     * @param key the key.
+     * @return the values of the key.
+     */
+    public List<V> get(Object key) {
+        return new ValuesView(key);
+    }
+
+    /**
+     * Checks if the hash table contains at least one value for the key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        return find(HashTable.hash(key), key) != null;
+    }
+
+    /**
+     * Checks if the value is one of the values of the key.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return {@code true} if the pair exists, {@code false} otherwise.
+     */
+    public boolean containsEntry(Object key, Object value) {
+        Node<K> node = find(HashTable.hash(key), key);
+        return node != null && node.indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes the first occurrence of the value from the values of the key. The key is removed
+     * with its last value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return {@code true} if the pair was present and removed.
+     */
+    public boolean remove(Object key, Object value) {
+        int hash = HashTable.hash(key);
+        Node<K> node = find(hash, key);
+        if (node == null) {
+            return false;
+        }
+        int index = node.indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        if (node.count == 1) {
+            unlink(hash, node);
+        } else {
+            node.removeAt(index);
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the key and all of its values.
+     *
+     * @param key the key.
+     * @return the number of values removed.
+     */
+    public int removeAll(Object key) {
+        int hash = HashTable.hash(key);
+        Node<K> node = find(hash, key);
+        if (node == null) {
+            return 0;
+        }
+        unlink(hash, node);
+        size -= node.count;
+        modCount++;
+        return node.count;
+    }
+
+    private void unlink(int hash, Node<K> node) {
+        int index = indexFor(hash);
+        if (table[index] == node) {
+            table[index] = node.next;
+        } else {
+            Node<K> prev = table[index];
+            while (prev.next != node) {
+                prev = prev.next;
+            }
+            prev.next = node.next;
+        }
+        keyCount--;
+    }
+
+    /**
+     * Returns the number of key-value pairs.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return the number of keys.
+     */
+    public int keyCount() {
+        return keyCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        Node<K>[] oldTable = table;
+        capacity *= 2;
+        table = new Node[capacity];
+        for (Node<K> head : oldTable) {
+            Node<K> curr = head;
+            while (curr != null) {
+                Node<K> next = curr.next;
+                int index = indexFor(curr.hash);
+                curr.next = table[index];
+                table[index] = curr;
+                curr = next;
+            }
+        }
+    }
+
+    /**
+     * Performs the action for each key-value pair, grouped by key.
+     *
+     * @param action the action to perform.
+     * @throws ConcurrentModificationException if the hash table is modified by the action.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Node<K> head : table) {
+            for (Node<K> node = head; node != null; node = node.next) {
+                for (int i = 0; i < node.count && modCount == expectedModCount; i++) {
+                    action.accept(node.key, value(node.valueAt(i)));
+                }
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a fail-fast iterator over the key-value pairs, grouped by key. The returned
+     * entries are snapshots.
+     *
+     * @return an iterator over the pairs in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int bucket = -1;
+            private Node<K> node;
+            private int index;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public HashTable.Entry<K, V> next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                if (node == null || index == node.count) {
+                    node = node == null ? null : node.next;
+                    while (node == null) {
+                        node = table[++bucket];
+                    }
+                    index = 0;
+                }
+                remaining--;
+                return new HashTable.Entry<>(node.key, value(node.valueAt(index++)), null);
+            }
+        };
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality. Two multi-tables are
+     * equal if they have the same keys with the same values in the same order.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HashMultiTable<?, ?> other)
+            || size != other.size || keyCount != other.keyCount) {
+            return false;
+        }
+        for (Node<K> head : table) {
+            for (Node<K> node = head; node != null; node = node.next) {
+                if (!get(node.key).equals(other.get(node.key))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this hash table.
+     *
+     * @return the sum over the keys of the key hash XOR the hash code of its value list.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Node<K> head : table) {
+            for (Node<K> node = head; node != null; node = node.next) {
+                h += node.hash ^ get(node.key).hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=[value1, value2], key2=[value3], ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (Node<K> head : table) {
+            for (Node<K> node = head; node != null; node = node.next) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(node.key).append('=').append(get(node.key));
+                first = false;
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Read-only view of the values of one key. It caches the key's node and looks it up again
+     * only after the table has been modified.
+     */
+    private final class ValuesView extends AbstractList<V> {
+
+        private final Object key;
+        private final int hash;
+        private Node<K> node;
+        private int nodeModCount = -1;
+
+        ValuesView(Object key) {
+            this.key = key;
+            this.hash = HashTable.hash(key);
+        }
+
+        private Node<K> node() {
+            int current = HashMultiTable.this.modCount;
+            if (nodeModCount != current) {
+                node = find(hash, key);
+                nodeModCount = current;
+            }
+            return node;
+        }
+
+        @Override
+        public V get(int index) {
+            Node<K> n = node();
+            Objects.checkIndex(index, n == null ? 0 : n.count);
+            return value(n.valueAt(index));
+        }
+
+        @Override
+        public int size() {
+            Node<K> n = node();
+            return n == null ? 0 : n.count;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package hashtable;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A set of objects stored directly in an open-addressing table, replacing
+ * {@code HashTable<E, Boolean>}.
+ *
+ * <p>The elements live in a single flat array probed linearly, as in
+ * {@link ObjectIntHashTable} without the value array: there is no entry object and no value
+ * slot per element, so the set costs one reference and a fraction of a free slot per element
+ * on top of the elements themselves. Removal shifts the following elements back instead of
+ * leaving tombstones. A {@code null} element is permitted.</p>
+ *
+ * <p>{@link #union}, {@link #intersection} and {@link #difference} return new sets and only
+ * iterate over the smaller operand, probing the larger one.</p>
+ *
+ * @param <E> the type of elements.
+ */
+public class HashSetTable<E> implements Iterable<E> {
+
+    private E[] keys;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private boolean containsNull;
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty set sized for the default number of elements (16).
+     */
+    public HashSetTable() {
+        this(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty set that can hold the given number of elements without growing.
+     *
+     * @param expectedSize the expected number of elements.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public HashSetTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        allocate(HashCommon.arraySize(expectedSize, HashCommon.LOAD_FACTOR));
+    }
+
+    /**
+     * Constructs a copy of the set by cloning its array, without rehashing.
+     *
+     * @param other the set to copy.
+     */
+    private HashSetTable(HashSetTable<E> other) {
+        this.keys = other.keys.clone();
+        this.n = other.n;
+        this.mask = other.mask;
+        this.maxFill = other.maxFill;
+        this.containsNull = other.containsNull;
+        this.size = other.size;
+    }
+
+    /**
+     * Allocates an array of the given length. The extra last slot stands for the {@code null}
+     * element, since {@code null} otherwise marks free slots.
+     *
+     * @param length the power-of-two array length.
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        n = length;
+        mask = length - 1;
+        maxFill = HashCommon.maxFill(length, HashCommon.LOAD_FACTOR);
+        keys = (E[]) new Object[length + 1];
+    }
+
+    /**
+     * Finds the slot of the element.
+     *
+     * @param key the element.
+     * @return the slot index, or {@code -(insertion slot) - 1} if the element is absent.
+     */
+    private int find(Object key) {
+        if (key == null) {
+            return containsNull ? n : -(n + 1);
+        }
+        int pos = HashCommon.mix(key.hashCode()) & mask;
+        E curr;
+        while ((curr = keys[pos]) != null) {
+            if (curr.equals(key)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    /**
+     * Adds the element to the set.
+     *
+     * @param key the element.
+     * @return {@code true} if the element was not already present.
+     */
+    public boolean add(E key) {
+        int pos = find(key);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (pos == n) {
+            containsNull = true;
+        }
+        keys[pos] = key;
+        modCount++;
+        if (size++ >= maxFill) {
+            rehash(n << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the set contains the element.
+     *
+     * @param key the element.
+     * @return {@code true} if the element is present.
+     */
+    public boolean contains(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Removes the element from the set.
+     *
+     * @param key the element.
+     * @return {@code true} if the element was present.
+     */
+    public boolean remove(Object key) {
+        int pos = find(key);
+        if (pos < 0) {
+            return false;
+        }
+        if (pos == n) {
+            containsNull = false;
+        } else {
+            shiftKeys(pos);
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     *
+     * @return the size of the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new set with the elements of both sets.
+     *
+     * @param other the other set.
+     * @return the union.
+     */
+    public HashSetTable<E> union(HashSetTable<E> other) {
+        HashSetTable<E> larger = size >= other.size ? this : other;
+        HashSetTable<E> smaller = larger == this ? other : this;
+        HashSetTable<E> result = new HashSetTable<>(larger);
+        for (E element : smaller) {
+            result.add(element);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the elements present in both sets. The elements are taken from
+     * the smaller set.
+     *
+     * @param other the other set.
+     * @return the intersection.
+     */
+    public HashSetTable<E> intersection(HashSetTable<?> other) {
+        HashSetTable<E> result = new HashSetTable<>(Math.min(size, other.size));
+        if (size <= other.size) {
+            for (E element : this) {
+                if (other.contains(element)) {
+                    result.add(element);
+                }
+            }
+        } else {
+            for (Object element : other) {
+                int pos = find(element);
+                if (pos >= 0) {
+                    result.add(keys[pos]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the elements of this set that are not in the other one.
+     *
+     * @param other the other set.
+     * @return the difference.
+     */
+    public HashSetTable<E> difference(HashSetTable<?> other) {
+        if (size <= other.size) {
+            HashSetTable<E> result = new HashSetTable<>(size);
+            for (E element : this) {
+                if (!other.contains(element)) {
+                    result.add(element);
+                }
+            }
+            return result;
+        }
+        HashSetTable<E> result = new HashSetTable<>(this);
+        for (Object element : other) {
+            result.remove(element);
+        }
+        return result;
+    }
+
+    /**
+     * Closes the gap left at {@code pos} by moving back every following element of the probe
+     * run whose home slot is not between the gap and its current slot.
+     *
+     * @param pos the slot that was emptied.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            E curr;
+            while (true) {
+                if ((curr = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                int slot = HashCommon.mix(curr.hashCode()) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+        }
+    }
+
+    /**
+     * Moves every element into an array of the given length.
+     *
+     * @param newN the new power-of-two array length.
+     */
+    private void rehash(int newN) {
+        E[] oldKeys = keys;
+        int oldN = n;
+        allocate(newN);
+        for (int i = 0; i < oldN; i++) {
+            E key = oldKeys[i];
+            if (key != null) {
+                int pos = HashCommon.mix(key.hashCode()) & mask;
+                while (keys[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns a fail-fast iterator over the elements. It does not support removal.
+     *
+     * @return an iterator over the elements of the set.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int pos = -1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                while (++pos < n) {
+                    if (keys[pos] != null) {
+                        return keys[pos];
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Compares the specified object with this set for equality.
+     *
+     * @param o object to be compared for equality with this set.
+     * @return {@code true} if the specified object is a set with the same elements.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HashSetTable<?> other) || size != other.size) {
+            return false;
+        }
+        for (E element : this) {
+            if (!other.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set. It equals the hash code of a
+     * {@link java.util.Set} holding the same elements.
+     *
+     * @return the hash code value for this set.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (E element : this) {
+            h += Objects.hashCode(element);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the set.
+     *
+     * @return a string in the form "[element1, element2, ...]".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        boolean first = true;
+
+        for (E element : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(element);
+            first = false;
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
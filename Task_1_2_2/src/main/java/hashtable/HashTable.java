@@ -1,24 +1,62 @@
 package hashtable;
 
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.ConcurrentModificationException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A generic hash table implementation that maps keys to values.
  *
+ * <p>Every entry stores the hash code of its key, so resizing relinks entries without calling
+ * {@code hashCode()} again and lookups compare keys with {@code equals} only when the stored
+ * hashes match. The hash code of the whole table is maintained as entries are added, changed
+ * and removed; it relies on keys and values not changing their hash codes while they are
+ * stored, which is already required of keys.</p>
+ *
+ * <p>The capacity is always a power of two. A table that will hold a known number of entries
+ * can be sized up front with {@link #HashTable(int)} or {@link #ensureCapacity(int)}, so it is
+ * allocated once instead of being doubled repeatedly; {@link #trimToSize()} and the optional
+ * automatic shrink give the memory back when most entries have been removed.</p>
+ *
+ * <p>By default the bucket of a key is derived from {@code hashCode()} alone, so keys chosen
+ * to collide all land in one chain. A table that stores keys from untrusted input should call
+ * {@link #enableRandomizedHashing()}, which picks buckets with a keyed hash under a random
+ * per-table seed and draws a new seed when a chain grows suspiciously long.</p>
+ *
  * @param <K> the type of keys maintained by this hash table.
  * @param <V> the type of mapped values.
  */
 public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
 
-    private static final float LOAD_FACTOR = 0.75f;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int BATCH_SIZE = 16;
+    private static final int MAX_CHAIN_LENGTH = 16;
 
+    private final float loadFactor;
+    private boolean autoShrink;
     private Entry<K, V>[] table;
     private int size;
     private int capacity;
     private int modCount;
+    private int tableHashCode;
+    private HashTableStats.Recorder recorder;
+    private BlockedBloomFilter filter;
+    private boolean randomized;
+    private long seed0;
+    private long seed1;
+    private int seedGeneration;
+    private int reseedSize;
 
     /**
      * Represents a key-value pair in the hash table.
@@ -28,9 +66,11 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      */
     public static class Entry<K, V> {
 
+        final int hash;
         final K key;
         V value;
         Entry<K, V> next;
+        int bucketHash;
 
         /**
          * Constructs a new entry with the specified key, value, and next entry.
@@ -40,9 +80,23 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
          * @param next  the next entry in the chain.
          */
         public Entry(K key, V value, Entry<K, V> next) {
+            this(Objects.hashCode(key), key, value, next);
+        }
+
+        /**
+         * Constructs a new entry whose key hash is already known.
+         *
+         * @param hash  the hash code of the key.
+         * @param key   the key.
+         * @param value the value.
+         * @param next  the next entry in the chain.
+         */
+        Entry(int hash, K key, V value, Entry<K, V> next) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
             this.next = next;
+            this.bucketHash = spread(hash);
         }
 
         /**
@@ -87,7 +141,8 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
             if (!(o instanceof Entry<?, ?> other)) {
                 return false;
             }
-            return Objects.equals(key, other.key) && Objects.equals(value, other.value);
+            return hash == other.hash && Objects.equals(key, other.key)
+                && Objects.equals(value, other.value);
         }
 
         /**
@@ -97,26 +152,97 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
          */
         @Override
         public int hashCode() {
-            return Objects.hashCode(key) ^ Objects.hashCode(value);
+            return hash ^ Objects.hashCode(value);
         }
     }
 
     /**
-     * Constructs an empty hash table with the default initial capacity (16).
+     * Constructs an empty hash table with the default initial capacity (16) and load factor
+     * (0.75).
      */
     public HashTable() {
-        this.capacity = 16;
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+        this.capacity = DEFAULT_CAPACITY;
         this.table = new Entry[capacity];
     }
 
     /**
-     * Computes the index in the table array for the given key.
+     * Constructs an empty hash table that holds the expected number of entries without
+     * resizing, with the default load factor (0.75).
+     *
+     * @param expectedSize the expected number of entries.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public HashTable(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty hash table that holds the expected number of entries without
+     * resizing. The load factor is the average number of entries per bucket at which the
+     * table grows; values above one trade longer chains for a smaller table.
+     *
+     * @param expectedSize the expected number of entries.
+     * @param loadFactor   the load factor.
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is
+     *                                  not positive.
+     */
+    public HashTable(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        if (!(loadFactor > 0) || Float.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.capacity = capacityFor(expectedSize);
+        this.table = new Entry[capacity];
+    }
+
+    /**
+     * Returns the smallest capacity that holds the given number of entries without growing.
+     */
+    private int capacityFor(int entries) {
+        return HashCommon.arraySize(entries + 1, loadFactor);
+    }
+
+    /**
+     * Computes the hash code of a key as stored in its entry.
      *
      * @param key the key.
+     * @return the hash code of the key, {@code 0} for {@code null}.
+     */
+    static int hash(Object key) {
+        return Objects.hashCode(key);
+    }
+
+    /**
+     * Computes the hash that selects the bucket of a key: the hash code with its high bits
+     * folded into the low ones, because the capacity is a power of two, or the keyed hash
+     * under the current seed if randomized hashing is enabled. Entries store it, so resizes
+     * relink them without hashing any key again.
+     *
+     * @param hash the hash code of the key.
+     * @param key  the key.
+     * @return the bucket hash.
+     */
+    private int bucketHash(int hash, Object key) {
+        return randomized ? HashCommon.keyedHash(key, seed0, seed1) : spread(hash);
+    }
+
+    /**
+     * Computes the index in the table array for the given key.
+     *
+     * @param hash the hash code of the key.
+     * @param key  the key.
      * @return the index corresponding to the key.
      */
-    private int hashKey(Object key) {
-        return (key == null) ? 0 : Math.abs(key.hashCode()) % capacity;
+    private int indexFor(int hash, Object key) {
+        return bucketHash(hash, key) & (capacity - 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
     }
 
     /**
@@ -126,24 +252,10 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      * @param value the value.
      */
     public void put(K key, V value) {
-        if (size + 1 >= capacity * LOAD_FACTOR) {
+        if (size + 1 >= capacity * loadFactor) {
             resize();
         }
-
-        int index = hashKey(key);
-        Entry<K, V> head = table[index];
-
-        for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
-            if (Objects.equals(curr.key, key)) {
-                curr.value = value;
-                return;
-            }
-        }
-
-        Entry<K, V> newEntry = new Entry<>(key, value, head);
-        table[index] = newEntry;
-        size++;
-        modCount++;
+        putAt(hash(key), key, value);
     }
 
     /**
@@ -153,13 +265,12 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      * @return the value corresponding to the key, or {@code null} if not found.
      */
     public V get(Object key) {
-        int index = hashKey(key);
-        for (Entry<K, V> curr = table[index]; curr != null; curr = curr.next) {
-            if (Objects.equals(curr.key, key)) {
-                return curr.value;
-            }
+        Entry<K, V> entry = lookup(hash(key), key);
+        if (entry == null) {
+            return null;
         }
-        return null;
+        afterEntryAccess(entry);
+        return entry.value;
     }
 
     /**
@@ -169,25 +280,12 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      * @return the value that was associated with the key, or {@code null} if not found.
      */
     public V remove(Object key) {
-        int index = hashKey(key);
-        Entry<K, V> curr = table[index];
-        Entry<K, V> prev = null;
-
-        while (curr != null) {
-            if (Objects.equals(curr.key, key)) {
-                if (prev == null) {
-                    table[index] = curr.next;
-                } else {
-                    prev.next = curr.next;
-                }
-                size--;
-                modCount++;
-                return curr.value;
-            }
-            prev = curr;
-            curr = curr.next;
+        Entry<K, V> removed = removeAt(hash(key), key);
+        if (removed == null) {
+            return null;
         }
-        return null;
+        shrinkIfSparse();
+        return removed.value;
     }
 
     /**
@@ -198,15 +296,281 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      * @throws NoSuchElementException if the key does not exist.
      */
     public void update(K key, V value) {
-        int index = hashKey(key);
-        for (Entry<K, V> curr = table[index]; curr != null; curr = curr.next) {
-            if (Objects.equals(curr.key, key)) {
-                curr.value = value;
-                modCount++;
-                return;
+        Entry<K, V> entry = findAt(hash(key), key);
+        if (entry == null) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+        setValue(entry, value);
+        modCount++;
+    }
+
+    /**
+     * Returns the entry for the key.
+     *
+     * @param hash the hash code of the key.
+     * @param key  the key.
+     * @return the entry, or {@code null} if the key is absent.
+     */
+    private Entry<K, V> findAt(int hash, Object key) {
+        for (Entry<K, V> curr = table[indexFor(hash, key)]; curr != null; curr = curr.next) {
+            if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                return curr;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the entry for a read-only lookup, consulting the Bloom filter first if it is
+     * enabled and recording the probe length if statistics are enabled.
+     *
+     * @param hash the hash code of the key.
+     * @param key  the key.
+     * @return the entry, or {@code null} if the key is absent.
+     */
+    private Entry<K, V> lookup(int hash, Object key) {
+        HashTableStats.Recorder r = recorder;
+        BlockedBloomFilter f = filter;
+        if (f != null && !f.mightContain(hash)) {
+            if (r != null) {
+                r.recordFilterRejection();
+            }
+            return null;
+        }
+        if (r == null) {
+            return findAt(hash, key);
+        }
+        int probes = 0;
+        for (Entry<K, V> curr = table[indexFor(hash, key)]; curr != null; curr = curr.next) {
+            probes++;
+            if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                r.recordLookup(probes, true);
+                return curr;
+            }
+        }
+        r.recordLookup(probes, false);
+        if (f != null) {
+            r.recordFilterFalsePositive();
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the value of an entry and keeps the table hash code up to date.
+     *
+     * @param entry the entry.
+     * @param value the new value.
+     */
+    private void setValue(Entry<K, V> entry, V value) {
+        tableHashCode += (entry.hash ^ Objects.hashCode(value)) - entry.hashCode();
+        entry.value = value;
+        afterEntryAccess(entry);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(Object key, V defaultValue) {
+        Entry<K, V> entry = lookup(hash(key), key);
+        if (entry == null) {
+            return defaultValue;
+        }
+        afterEntryAccess(entry);
+        return entry.value;
+    }
+
+    /**
+     * Associates the value with the key unless the key is already mapped to a non-null value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the previous value, or {@code null} if there was none.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (size + 1 >= capacity * loadFactor) {
+            resize();
+        }
+        int hash = hash(key);
+        Entry<K, V> entry = findAt(hash, key);
+        if (entry == null) {
+            insertAt(hash, key, value);
+            return null;
+        }
+        V old = entry.value;
+        if (old == null) {
+            setValue(entry, value);
+        }
+        return old;
+    }
+
+    /**
+     * Replaces the value of the key only if the key is present.
+     *
+     * @param key   the key.
+     * @param value the new value.
+     * @return the previous value, or {@code null} if the key was absent.
+     */
+    public V replace(K key, V value) {
+        Entry<K, V> entry = findAt(hash(key), key);
+        if (entry == null) {
+            return null;
+        }
+        V old = entry.value;
+        setValue(entry, value);
+        return old;
+    }
+
+    /**
+     * Replaces the value of the key only if it is currently mapped to the expected value.
+     *
+     * @param key      the key.
+     * @param oldValue the expected current value.
+     * @param newValue the new value.
+     * @return {@code true} if the value was replaced.
+     */
+    public boolean replace(K key, V oldValue, V newValue) {
+        Entry<K, V> entry = findAt(hash(key), key);
+        if (entry == null || !Objects.equals(entry.value, oldValue)) {
+            return false;
+        }
+        setValue(entry, newValue);
+        return true;
+    }
+
+    /**
+     * Returns the value of the key, computing and storing it first if the key is absent or
+     * mapped to {@code null}. If the function returns {@code null}, nothing is stored.
+     *
+     * @param key             the key.
+     * @param mappingFunction computes the value from the key.
+     * @return the current or computed value, or {@code null}.
+     * @throws ConcurrentModificationException if the function modifies the hash table.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        if (size + 1 >= capacity * loadFactor) {
+            resize();
+        }
+        int hash = hash(key);
+        Entry<K, V> entry = findAt(hash, key);
+        if (entry != null && entry.value != null) {
+            return entry.value;
+        }
+        int expectedModCount = modCount;
+        V value = mappingFunction.apply(key);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value == null) {
+            return null;
+        }
+        if (entry == null) {
+            insertAt(hash, key, value);
+        } else {
+            setValue(entry, value);
+        }
+        return value;
+    }
+
+    /**
+     * Recomputes the value of the key if it is mapped to a non-null value. If the function
+     * returns {@code null}, the key is removed.
+     *
+     * @param key               the key.
+     * @param remappingFunction computes the new value from the key and the current value.
+     * @return the new value, or {@code null} if the key is absent or was removed.
+     * @throws ConcurrentModificationException if the function modifies the hash table.
+     */
+    public V computeIfPresent(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        int hash = hash(key);
+        Entry<K, V> entry = findAt(hash, key);
+        if (entry == null || entry.value == null) {
+            return null;
+        }
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, entry.value);
+        return remap(hash, key, entry, value, expectedModCount);
+    }
+
+    /**
+     * Computes a new value for the key from its current value, or from {@code null} if the key
+     * is absent. If the function returns {@code null}, the key is removed.
+     *
+     * @param key               the key.
+     * @param remappingFunction computes the new value from the key and the current value.
+     * @return the new value, or {@code null} if there is none.
+     * @throws ConcurrentModificationException if the function modifies the hash table.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        if (size + 1 >= capacity * loadFactor) {
+            resize();
+        }
+        int hash = hash(key);
+        Entry<K, V> entry = findAt(hash, key);
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, entry == null ? null : entry.value);
+        return remap(hash, key, entry, value, expectedModCount);
+    }
+
+    /**
+     * Associates the value with the key if the key is absent or mapped to {@code null};
+     * otherwise combines the current value with the given one. If the function returns
+     * {@code null}, the key is removed. This is the single-lookup way to aggregate counters.
+     *
+     * @param key               the key.
+     * @param value             the value to store or to combine with the current value.
+     * @param remappingFunction combines the current value with {@code value}.
+     * @return the new value, or {@code null} if the key was removed.
+     * @throws NullPointerException            if the value or the function is {@code null}.
+     * @throws ConcurrentModificationException if the function modifies the hash table.
+     */
+    public V merge(K key, V value,
+        BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        if (size + 1 >= capacity * loadFactor) {
+            resize();
+        }
+        int hash = hash(key);
+        Entry<K, V> entry = findAt(hash, key);
+        int expectedModCount = modCount;
+        V merged = entry == null || entry.value == null
+            ? value : remappingFunction.apply(entry.value, value);
+        return remap(hash, key, entry, merged, expectedModCount);
+    }
+
+    /**
+     * Stores the result of a remapping function: inserts, replaces or removes the entry.
+     *
+     * @param hash             the hash code of the key.
+     * @param key              the key.
+     * @param entry            the current entry, or {@code null} if the key is absent.
+     * @param value            the new value; {@code null} removes the key.
+     * @param expectedModCount the modification count before the function ran.
+     * @return the new value.
+     */
+    private V remap(int hash, K key, Entry<K, V> entry, V value, int expectedModCount) {
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value == null) {
+            if (entry != null) {
+                removeAt(hash, key);
+                shrinkIfSparse();
             }
+        } else if (entry == null) {
+            insertAt(hash, key, value);
+        } else {
+            setValue(entry, value);
         }
-        throw new NoSuchElementException("Key not found: " + key);
+        return value;
     }
 
     /**
@@ -216,13 +580,7 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
      * @return {@code true} if the key exists, {@code false} otherwise.
      */
     public boolean containsKey(Object key) {
-        int index = hashKey(key);
-        for (Entry<K, V> curr = table[index]; curr != null; curr = curr.next) {
-            if (Objects.equals(curr.key, key)) {
-                return true;
-            }
-        }
-        return false;
+        return lookup(hash(key), key) != null;
     }
 
     /**
@@ -235,18 +593,470 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     }
 
     /**
-     * Resizes the table when the load factor is exceeded.
+     * Looks up a batch of keys. The keys are processed in groups: the bucket indices of a group
+     * are computed first, then all of its bucket heads are loaded and only then are the chains
+     * walked, so the cache misses of independent lookups overlap instead of following one
+     * another.
+     *
+     * @param keys    the keys to look up.
+     * @param results receives the value of {@code keys[i]} at index {@code i}, or {@code null}
+     *                if the key is absent.
+     * @return the number of keys that were found.
+     * @throws IllegalArgumentException if {@code results} is shorter than {@code keys}.
+     */
+    public int getAll(Object[] keys, V[] results) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Results array is shorter than the keys array");
+        }
+        if (recorder != null || filter != null) {
+            int found = 0;
+            for (int i = 0; i < keys.length; i++) {
+                Entry<K, V> entry = lookup(hash(keys[i]), keys[i]);
+                if (entry == null) {
+                    results[i] = null;
+                } else {
+                    afterEntryAccess(entry);
+                    results[i] = entry.value;
+                    found++;
+                }
+            }
+            return found;
+        }
+        Entry<K, V>[] tab = table;
+        int[] hashes = new int[BATCH_SIZE];
+        Entry<K, V>[] heads = new Entry[BATCH_SIZE];
+        int found = 0;
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, keys.length - start);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = hash(keys[start + i]);
+            }
+            for (int i = 0; i < count; i++) {
+                heads[i] = tab[indexFor(hashes[i], keys[start + i])];
+            }
+            for (int i = 0; i < count; i++) {
+                Object key = keys[start + i];
+                V value = null;
+                int hash = hashes[i];
+                for (Entry<K, V> curr = heads[i]; curr != null; curr = curr.next) {
+                    if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                        afterEntryAccess(curr);
+                        value = curr.value;
+                        found++;
+                        break;
+                    }
+                }
+                results[start + i] = value;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds a batch of key-value pairs. The table is grown once up front, so no resize happens
+     * in the middle of the batch, and the bucket indices of each group are computed before any
+     * chain is walked.
+     *
+     * @param keys   the keys.
+     * @param values the values; {@code values[i]} is associated with {@code keys[i]}.
+     * @throws IllegalArgumentException if the arrays have different lengths.
+     */
+    public void putAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values have different lengths");
+        }
+        ensureCapacity(size + keys.length);
+        int[] hashes = new int[BATCH_SIZE];
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, keys.length - start);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = hash(keys[start + i]);
+            }
+            for (int i = 0; i < count; i++) {
+                putAt(hashes[i], keys[start + i], values[start + i]);
+            }
+        }
+    }
+
+    /**
+     * Inserts or replaces a mapping without checking the load factor.
+     *
+     * @param hash  the hash code of the key.
+     * @param key   the key.
+     * @param value the value.
+     */
+    private void putAt(int hash, K key, V value) {
+        Entry<K, V> entry = findAt(hash, key);
+        if (entry != null) {
+            setValue(entry, value);
+            return;
+        }
+        insertAt(hash, key, value);
+    }
+
+    /**
+     * Links a new entry at the head of its bucket. The key must be absent.
+     *
+     * @param hash  the hash code of the key.
+     * @param key   the key.
+     * @param value the value.
+     */
+    private void insertAt(int hash, K key, V value) {
+        int bucketHash = bucketHash(hash, key);
+        int index = bucketHash & (capacity - 1);
+        Entry<K, V> entry = newEntry(hash, key, value, table[index]);
+        entry.bucketHash = bucketHash;
+        table[index] = entry;
+        tableHashCode += hash ^ Objects.hashCode(value);
+        size++;
+        modCount++;
+        if (filter != null) {
+            filter.add(hash);
+        }
+        if (randomized && size >= reseedSize && isLongChain(entry)) {
+            reseed();
+            if (recorder != null) {
+                recorder.recordReseed();
+            }
+        }
+        afterEntryInsertion(entry);
+    }
+
+    /**
+     * Checks whether the chain starting at the entry is longer than random hashing plausibly
+     * produces at the load factor of the table.
+     */
+    private boolean isLongChain(Entry<K, V> head) {
+        int limit = (int) (MAX_CHAIN_LENGTH * Math.max(1, loadFactor));
+        int length = 0;
+        for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+            if (++length > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the entry for a new key. Subclasses override it, together with the
+     * {@code after...} hooks, to keep additional links between entries.
+     *
+     * @param hash  the hash code of the key.
+     * @param key   the key.
+     * @param value the value.
+     * @param next  the next entry in the bucket.
+     * @return the new entry.
+     */
+    Entry<K, V> newEntry(int hash, K key, V value, Entry<K, V> next) {
+        return new Entry<>(hash, key, value, next);
+    }
+
+    /**
+     * Called after a new entry has been linked into the table.
+     *
+     * @param entry the inserted entry.
+     */
+    void afterEntryInsertion(Entry<K, V> entry) {
+    }
+
+    /**
+     * Called after the value of an entry has been read by {@code get}, {@code getOrDefault}
+     * or {@code getAll}, or replaced.
+     *
+     * @param entry the accessed entry.
+     */
+    void afterEntryAccess(Entry<K, V> entry) {
+    }
+
+    /**
+     * Called after an entry has been unlinked from the table.
+     *
+     * @param entry the removed entry.
+     */
+    void afterEntryRemoval(Entry<K, V> entry) {
+    }
+
+    /**
+     * Removes a batch of keys, computing the bucket indices of each group before unlinking.
+     *
+     * @param keys the keys to remove.
+     * @return the number of keys that were present and removed.
+     */
+    public int removeAll(Object[] keys) {
+        int[] hashes = new int[BATCH_SIZE];
+        int removed = 0;
+        for (int start = 0; start < keys.length; start += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, keys.length - start);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = hash(keys[start + i]);
+            }
+            for (int i = 0; i < count; i++) {
+                if (removeAt(hashes[i], keys[start + i]) != null) {
+                    removed++;
+                }
+            }
+        }
+        shrinkIfSparse();
+        return removed;
+    }
+
+    /**
+     * Unlinks the key from its bucket.
+     *
+     * @param hash the hash code of the key.
+     * @param key  the key.
+     * @return the removed entry, or {@code null} if the key was absent.
+     */
+    private Entry<K, V> removeAt(int hash, Object key) {
+        int index = indexFor(hash, key);
+        Entry<K, V> prev = null;
+        for (Entry<K, V> curr = table[index]; curr != null; prev = curr, curr = curr.next) {
+            if (curr.hash == hash && Objects.equals(curr.key, key)) {
+                if (prev == null) {
+                    table[index] = curr.next;
+                } else {
+                    prev.next = curr.next;
+                }
+                tableHashCode -= curr.hashCode();
+                size--;
+                modCount++;
+                afterEntryRemoval(curr);
+                return curr;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts recording lookup and resize statistics. Counters already being recorded are kept.
+     */
+    public void enableStats() {
+        if (recorder == null) {
+            recorder = new HashTableStats.Recorder();
+        }
+    }
+
+    /**
+     * Stops recording statistics and discards the recorded counters.
+     */
+    public void disableStats() {
+        recorder = null;
+    }
+
+    /**
+     * Maintains a blocked Bloom filter of the keys alongside the table, so that
+     * {@code get}, {@code getOrDefault}, {@code containsKey} and {@code getAll} answer most
+     * lookups for absent keys from one cache line without walking a chain. It pays off when
+     * most lookups miss; every insertion also sets eight bits. Removed keys stay in the filter
+     * until it is rebuilt, which happens on every resize. The share of misses that still reach
+     * the table is reported by {@link HashTableStats#filterFalsePositiveRate()}.
+     */
+    public void enableBloomFilter() {
+        rebuildFilter();
+    }
+
+    /**
+     * Drops the Bloom filter.
+     */
+    public void disableBloomFilter() {
+        filter = null;
+    }
+
+    /**
+     * Rebuilds the Bloom filter for as many keys as the current capacity holds before it
+     * grows.
+     */
+    private void rebuildFilter() {
+        BlockedBloomFilter f = new BlockedBloomFilter((long) (capacity * loadFactor));
+        for (Entry<K, V> head : table) {
+            for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                f.add(curr.hash);
+            }
+        }
+        filter = f;
+    }
+
+    /**
+     * Picks buckets with a keyed hash under a random per-table seed instead of the plain hash
+     * code, so that nobody who does not know the seed can choose keys that share a chain.
+     * {@code String} keys are hashed with SipHash-1-3 over their characters; other keys have
+     * their hash code mixed with the seed, which spreads keys whose hash codes differ but
+     * cannot separate keys with equal hash codes. If an insertion still leaves a chain far
+     * longer than random hashing produces, the table draws a new seed and relinks every entry,
+     * at most once per doubling of its size. Lookups pay for the keyed hash; the
+     * {@code hashCode()} of keys, entries and the table, and therefore {@link #equals},
+     * {@link #freeze()} and snapshots, are unaffected. Reseeding changes the iteration order but
+     * keeps the guarantees of {@link #weaklyConsistentIterator()}.
+     */
+    public void enableRandomizedHashing() {
+        if (!randomized) {
+            randomized = true;
+            reseed();
+        }
+    }
+
+    /**
+     * Goes back to picking buckets from the plain hash code.
+     */
+    public void disableRandomizedHashing() {
+        if (randomized) {
+            randomized = false;
+            rehashBuckets();
+        }
+    }
+
+    /**
+     * Draws a new seed and relinks the entries under it.
+     */
+    private void reseed() {
+        seed0 = Seeds.RANDOM.nextLong();
+        seed1 = Seeds.RANDOM.nextLong();
+        reseedSize = size * 2;
+        rehashBuckets();
+    }
+
+    /**
+     * Recomputes the bucket hash of every entry after the hashing mode or the seed changed, and
+     * relinks the entries in place.
+     */
+    private void rehashBuckets() {
+        seedGeneration++;
+        for (Entry<K, V> head : table) {
+            for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                curr.bucketHash = bucketHash(curr.hash, curr.key);
+            }
+        }
+        relink(capacity);
+    }
+
+    /**
+     * Holds the source of hash seeds, created on first use.
+     */
+    private static final class Seeds {
+        static final SecureRandom RANDOM = new SecureRandom();
+    }
+
+    /**
+     * Returns a snapshot of the statistics. The chain-length histogram is measured now by
+     * walking the buckets; the lookup and resize counters are those recorded since
+     * {@link #enableStats()}, or zero if recording is disabled.
+     *
+     * @return the statistics snapshot.
+     */
+    public HashTableStats stats() {
+        long[] histogram = new long[1];
+        for (Entry<K, V> head : table) {
+            int length = 0;
+            for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                length++;
+            }
+            if (length >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, length + 1);
+            }
+            histogram[length]++;
+        }
+        return new HashTableStats(size, capacity, histogram, recorder);
+    }
+
+    /**
+     * Returns an immutable copy of this table with a minimal perfect hash layout, for data that
+     * is built once and then only read. Later changes to this table are not reflected.
+     *
+     * @return the frozen copy.
+     */
+    public FrozenHashTable<K, V> freeze() {
+        return new FrozenHashTable<>(this);
+    }
+
+    /**
+     * Grows the table, if necessary, so that it holds the given number of entries without
+     * resizing again. The table is reallocated at most once.
+     *
+     * @param expectedSize the number of entries the table should hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize >= capacity * loadFactor) {
+            resize(capacityFor(expectedSize));
+        }
+    }
+
+    /**
+     * Shrinks the table to the smallest capacity that holds its current entries.
+     */
+    public void trimToSize() {
+        int trimmed = capacityFor(size);
+        if (trimmed < capacity) {
+            resize(trimmed);
+        }
+    }
+
+    /**
+     * Enables or disables the automatic shrink. When enabled, a removal that leaves the table
+     * less than a quarter as full as its load factor allows halves the load by shrinking the
+     * table, but never below the default capacity. The gap between the grow and the shrink
+     * thresholds keeps a table whose size oscillates from resizing on every operation.
+     * Removals through an iterator never shrink the table, so the iteration is not disturbed.
+     *
+     * @param enabled whether removals may shrink the table.
+     */
+    public void setAutoShrink(boolean enabled) {
+        autoShrink = enabled;
+    }
+
+    private void shrinkIfSparse() {
+        if (autoShrink && capacity > DEFAULT_CAPACITY && size < capacity * loadFactor / 4) {
+            int shrunk = Math.max(DEFAULT_CAPACITY, capacityFor(size) * 2);
+            if (shrunk < capacity) {
+                resize(shrunk);
+            }
+        }
+    }
+
+    /**
+     * Doubles the table when the load factor is exceeded.
      */
     private void resize() {
-        capacity *= 2;
+        if (capacity < HashCommon.MAXIMUM_CAPACITY) {
+            resize(capacity * 2);
+        }
+    }
+
+    /**
+     * Moves the entries into a table of the given capacity.
+     *
+     * @param newCapacity the new capacity, a power of two.
+     */
+    private void resize(int newCapacity) {
+        long start = recorder == null ? 0 : System.nanoTime();
+        relink(newCapacity);
+        if (filter != null) {
+            rebuildFilter();
+        }
+        if (recorder != null) {
+            recorder.recordResize(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Relinks the entries into a new bucket array of the given capacity using their stored
+     * bucket hashes.
+     *
+     * @param newCapacity the new capacity, a power of two.
+     */
+    private void relink(int newCapacity) {
+        capacity = newCapacity;
         Entry<K, V>[] oldTable = table;
         table = new Entry[capacity];
-        size = 0;
         modCount++;
 
         for (Entry<K, V> head : oldTable) {
-            for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
-                put(curr.key, curr.value);
+            Entry<K, V> curr = head;
+            while (curr != null) {
+                Entry<K, V> next = curr.next;
+                int index = curr.bucketHash & (capacity - 1);
+                curr.next = table[index];
+                table[index] = curr;
+                curr = next;
             }
         }
     }
@@ -266,16 +1076,13 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
             return false;
         }
 
-        if (size != other.size) {
+        if (size != other.size || tableHashCode != other.tableHashCode) {
             return false;
         }
 
         for (Entry<K, V> entry : this) {
-            Object key = entry.key;
-            Object value = entry.value;
-            Object otherValue = other.get(key);
-
-            if (!Objects.equals(value, otherValue)) {
+            Entry<?, ?> otherEntry = other.findAt(entry.hash, entry.key);
+            if (otherEntry == null || !Objects.equals(entry.value, otherEntry.value)) {
                 return false;
             }
         }
@@ -283,17 +1090,14 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     }
 
     /**
-     * Returns the hash code value for this hash table.
+     * Returns the hash code value for this hash table: the sum of the hash codes of its entries,
+     * maintained as the table changes.
      *
      * @return the hash code value for this hash table.
      */
     @Override
     public int hashCode() {
-        int h = 0;
-        for (Entry<K, V> entry : this) {
-            h += entry.hashCode();
-        }
-        return h;
+        return tableHashCode;
     }
 
     /**
@@ -328,6 +1132,152 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
         return new HashTableIterator();
     }
 
+    /**
+     * Returns a weakly consistent iterator: it never throws
+     * {@link ConcurrentModificationException}, returns every entry that stays in the table
+     * during the iteration exactly once, and may or may not return entries that are added or
+     * removed meanwhile. Long scans can therefore run between other modifications of the table
+     * without copying it. The hash table is still not thread-safe; modifications from other
+     * threads need external synchronization.
+     *
+     * @return a weakly consistent iterator over the entries in the hash table.
+     */
+    public Iterator<Entry<K, V>> weaklyConsistentIterator() {
+        return new WeakIterator();
+    }
+
+    /**
+     * Performs the action for each key-value pair, walking the bucket array directly.
+     *
+     * @param action the action to perform.
+     * @throws ConcurrentModificationException if the hash table is modified by the action.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        Entry<K, V>[] tab = table;
+        for (Entry<K, V> head : tab) {
+            for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                action.accept(curr.key, curr.value);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a spliterator over the entries. It reports its exact size until it is split and
+     * splits by halving the range of buckets, so parallel streams divide the table evenly.
+     *
+     * @return a spliterator over the entries in the hash table.
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return new HashTableSpliterator(table, 0, table.length, size, modCount, true);
+    }
+
+    /**
+     * Returns a sequential stream over the entries.
+     *
+     * @return a stream over the entries in the hash table.
+     */
+    public Stream<Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the entries.
+     *
+     * @return a parallel stream over the entries in the hash table.
+     */
+    public Stream<Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Spliterator over a range of buckets. It is late-checking: a modification of the table is
+     * detected after the traversal.
+     */
+    private final class HashTableSpliterator implements Spliterator<Entry<K, V>> {
+
+        private final Entry<K, V>[] tab;
+        private final int expectedModCount;
+        private final int fence;
+        private int index;
+        private Entry<K, V> current;
+        private long estimate;
+        private boolean exact;
+
+        HashTableSpliterator(Entry<K, V>[] tab, int origin, int fence, long estimate,
+            int expectedModCount, boolean exact) {
+            this.tab = tab;
+            this.index = origin;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.expectedModCount = expectedModCount;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            Objects.requireNonNull(action);
+            while (current == null && index < fence) {
+                current = tab[index++];
+            }
+            if (current == null) {
+                return false;
+            }
+            Entry<K, V> entry = current;
+            current = current.next;
+            action.accept(entry);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            Objects.requireNonNull(action);
+            for (Entry<K, V> curr = current; curr != null; curr = curr.next) {
+                action.accept(curr);
+            }
+            current = null;
+            for (; index < fence; index++) {
+                for (Entry<K, V> curr = tab[index]; curr != null; curr = curr.next) {
+                    action.accept(curr);
+                }
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            int lo = index;
+            int mid = (lo + fence) >>> 1;
+            if (lo >= mid || current != null) {
+                return null;
+            }
+            index = mid;
+            estimate >>>= 1;
+            exact = false;
+            return new HashTableSpliterator(tab, lo, mid, estimate, expectedModCount, false);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return (exact ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+
     /**
      * Iterator implementation for the hash table.
      */
@@ -336,7 +1286,7 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
         private int bucketIndex;
         private Entry<K, V> currentEntry;
         private Entry<K, V> nextEntry;
-        private final int expectedModCount;
+        private int expectedModCount;
 
         /**
          * Constructs a new iterator over the hash table.
@@ -398,5 +1348,144 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
             advance();
             return currentEntry;
         }
+
+        /**
+         * Removes the entry last returned by {@link #next()}.
+         *
+         * @throws IllegalStateException           if {@code next()} has not been called, or the
+         *                                         entry was already removed.
+         * @throws ConcurrentModificationException if the hash table was modified after the iterator
+         *                                         was created.
+         */
+        @Override
+        public void remove() {
+            if (currentEntry == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(currentEntry.hash, currentEntry.key);
+            expectedModCount = modCount;
+            currentEntry = null;
+        }
+    }
+
+    /**
+     * Weakly consistent iterator. It walks logical buckets, defined by the capacity the table
+     * had when the iterator was created, and copies the entries of one logical bucket at a
+     * time. A key always stays in the same logical bucket when the table is resized, so every
+     * entry that is present for the whole iteration is returned exactly once; entries added
+     * or removed meanwhile may or may not be returned.
+     *
+     * <p>A new seed moves keys between logical buckets. When the iterator notices one, it
+     * computes each remaining entry's logical bucket under the seed it started with and copies
+     * all entries of the buckets it has not visited yet at once.</p>
+     */
+    private class WeakIterator implements Iterator<Entry<K, V>> {
+
+        private final int logicalCapacity = capacity;
+        private final int generation = seedGeneration;
+        private final boolean wasRandomized = randomized;
+        private final long wasSeed0 = seed0;
+        private final long wasSeed1 = seed1;
+        private int bucket = -1;
+        private Entry<K, V>[] buffer = new Entry[4];
+        private int bufferSize;
+        private int bufferIndex;
+        private Entry<K, V> lastReturned;
+
+        WeakIterator() {
+            fill();
+        }
+
+        /**
+         * Moves to the next non-empty logical bucket and copies its entries.
+         */
+        private void fill() {
+            bufferSize = 0;
+            bufferIndex = 0;
+            if (generation != seedGeneration) {
+                drain();
+                return;
+            }
+            while (bufferSize == 0 && ++bucket < logicalCapacity) {
+                if (capacity >= logicalCapacity) {
+                    for (int i = bucket; i < capacity; i += logicalCapacity) {
+                        for (Entry<K, V> curr = table[i]; curr != null; curr = curr.next) {
+                            add(curr);
+                        }
+                    }
+                } else {
+                    Entry<K, V> head = table[bucket & (capacity - 1)];
+                    for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                        if ((curr.bucketHash & (logicalCapacity - 1)) == bucket) {
+                            add(curr);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Copies every entry whose logical bucket, under the seed the iteration started with,
+         * has not been visited yet, and ends the walk over the buckets.
+         */
+        private void drain() {
+            if (bucket >= logicalCapacity) {
+                return;
+            }
+            for (Entry<K, V> head : table) {
+                for (Entry<K, V> curr = head; curr != null; curr = curr.next) {
+                    int bucketHash = wasRandomized
+                        ? HashCommon.keyedHash(curr.key, wasSeed0, wasSeed1)
+                        : spread(curr.hash);
+                    if ((bucketHash & (logicalCapacity - 1)) > bucket) {
+                        add(curr);
+                    }
+                }
+            }
+            bucket = logicalCapacity;
+        }
+
+        private void add(Entry<K, V> entry) {
+            if (bufferSize == buffer.length) {
+                buffer = Arrays.copyOf(buffer, bufferSize * 2);
+            }
+            buffer[bufferSize++] = entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return bufferIndex < bufferSize;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (bufferIndex >= bufferSize) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = buffer[bufferIndex];
+            buffer[bufferIndex++] = null;
+            if (bufferIndex == bufferSize) {
+                fill();
+            }
+            return lastReturned;
+        }
+
+        /**
+         * Removes the key of the entry last returned by {@link #next()}.
+         *
+         * @throws IllegalStateException if {@code next()} has not been called, or the entry was
+         *                               already removed.
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            removeAt(lastReturned.hash, lastReturned.key);
+            lastReturned = null;
+        }
     }
 }
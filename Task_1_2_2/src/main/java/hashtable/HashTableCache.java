@@ -0,0 +1,626 @@
+package hashtable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache built on {@link HashTable}. Entries are evicted when the cache exceeds its
+ * maximum size or weight, and may expire a fixed time after they were written or last read.
+ *
+ * <p>By default the least recently used entry is evicted. With {@link Builder#tinyLfu()} the
+ * cache uses W-TinyLFU instead: new entries enter a small LRU window, and an entry leaving the
+ * window is admitted to the main space only if it has been requested more often than the
+ * entry it would displace. The main space is a segmented LRU with a probation and a protected
+ * part. Every queue is a doubly linked list, so all maintenance is O(1) per operation.</p>
+ *
+ * <p>Expired entries are removed when they are read and from the heads of the queues whenever
+ * the cache is modified or {@link #cleanUp()} is called. Evictions are reported to the
+ * listener; explicit removals are not. The cache is not thread-safe. {@code null} keys and
+ * values are not permitted.</p>
+ *
+ * @param <K> the type of keys maintained by this cache.
+ * @param <V> the type of cached values.
+ */
+public class HashTableCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * The reason an entry was evicted.
+     */
+    public enum RemovalCause {
+        /**
+         * The cache exceeded its maximum size or weight.
+         */
+        SIZE,
+        /**
+         * The entry outlived its expire-after-write or expire-after-access time.
+         */
+        EXPIRED
+    }
+
+    /**
+     * Receives evicted entries.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+
+        /**
+         * Called after the entry has been removed from the cache.
+         *
+         * @param key   the key.
+         * @param value the value.
+         * @param cause why the entry was evicted.
+         */
+        void onEviction(K key, V value, RemovalCause cause);
+    }
+
+    /**
+     * Computes the weight of an entry.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+
+        /**
+         * Returns the weight of the entry.
+         *
+         * @param key   the key.
+         * @param value the value.
+         * @return a non-negative weight.
+         */
+        int weigh(K key, V value);
+    }
+
+    /**
+     * A cache entry linked into an access-order queue and, when entries expire after write,
+     * into the write-order queue.
+     *
+     * @param <K> the type of the key.
+     * @param <V> the type of the value.
+     */
+    private static final class Node<K, V> {
+
+        final K key;
+        V value;
+        int weight;
+        long writeTime;
+        long accessTime;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> writePrev;
+        Node<K, V> writeNext;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A circular access-order list with a sentinel and its total weight.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    private static final class AccessQueue<K, V> {
+
+        final Node<K, V> sentinel = new Node<>(null, null);
+        long weight;
+
+        AccessQueue() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        Node<K, V> first() {
+            return sentinel.next == sentinel ? null : sentinel.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = sentinel.prev;
+            node.next = sentinel;
+            sentinel.prev.next = node;
+            sentinel.prev = node;
+            weight += node.weight;
+        }
+
+        void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            unlink(node);
+            addLast(node);
+        }
+    }
+
+    private final HashTable<K, Node<K, V>> index = new HashTable<>();
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final EvictionListener<? super K, ? super V> listener;
+    private final LongSupplier ticker;
+    private final FrequencySketch sketch;
+    @SuppressWarnings("unchecked")
+    private final AccessQueue<K, V>[] queues = new AccessQueue[] {
+        new AccessQueue<>(), new AccessQueue<>(), new AccessQueue<>()
+    };
+    private final Node<K, V> writeSentinel = new Node<>(null, null);
+    private long totalWeight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private HashTableCache(Builder<K, V> builder) {
+        this.maximum = builder.maximum;
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.listener = builder.listener;
+        this.ticker = builder.ticker;
+        if (builder.tinyLfu) {
+            this.windowMaximum = Math.max(1, (long) (maximum * WINDOW_RATIO));
+            this.protectedMaximum = (long) ((maximum - windowMaximum) * PROTECTED_RATIO);
+            this.sketch = new FrequencySketch(maximum);
+        } else {
+            this.windowMaximum = 0;
+            this.protectedMaximum = 0;
+            this.sketch = null;
+        }
+        writeSentinel.writePrev = writeSentinel;
+        writeSentinel.writeNext = writeSentinel;
+    }
+
+    /**
+     * Returns a builder for a cache.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return a new builder.
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Retrieves the value associated with the specified key and records the access.
+     *
+     * @param key the key.
+     * @return the cached value, or {@code null} if it is absent or expired.
+     */
+    public V get(K key) {
+        Objects.requireNonNull(key);
+        long now = ticker.getAsLong();
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(node, now)) {
+            missCount++;
+            evict(node, RemovalCause.EXPIRED);
+            return null;
+        }
+        hitCount++;
+        node.accessTime = now;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Retrieves the value without recording an access.
+     *
+     * @param key the key.
+     * @return the cached value, or {@code null} if it is absent or expired.
+     */
+    public V peek(K key) {
+        Node<K, V> node = index.get(key);
+        return node == null || isExpired(node, ticker.getAsLong()) ? null : node.value;
+    }
+
+    /**
+     * Adds a key-value pair to the cache, replacing the old value of the key, and evicts
+     * entries if the cache has become too large.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        long now = ticker.getAsLong();
+        int weight = weigher == null ? 1 : weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        Node<K, V> node = index.get(key);
+        if (node != null) {
+            AccessQueue<K, V> queue = queues[node.queue];
+            queue.weight += weight - node.weight;
+            totalWeight += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            node.writeTime = now;
+            node.accessTime = now;
+            if (expireAfterWriteNanos > 0) {
+                unlinkWrite(node);
+                linkWrite(node);
+            }
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value);
+            node.weight = weight;
+            node.writeTime = now;
+            node.accessTime = now;
+            node.queue = sketch != null ? WINDOW : PROBATION;
+            queues[node.queue].addLast(node);
+            totalWeight += weight;
+            if (expireAfterWriteNanos > 0) {
+                linkWrite(node);
+            }
+            index.put(key, node);
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+        }
+        expireEntries(now);
+        evictEntries();
+    }
+
+    /**
+     * Removes the entry for the key. The eviction listener is not notified.
+     *
+     * @param key the key.
+     * @return the value that was cached, or {@code null} if none.
+     */
+    public V remove(K key) {
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Removes every expired entry that has reached the head of its queue.
+     */
+    public void cleanUp() {
+        expireEntries(ticker.getAsLong());
+    }
+
+    /**
+     * Returns the number of cached entries, including expired ones not yet removed.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the total weight of the cached entries; equal to {@link #size()} without a
+     * weigher.
+     *
+     * @return the weighted size.
+     */
+    public long weightedSize() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the number of {@link #get} calls that found a live entry.
+     *
+     * @return the hit count.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of {@link #get} calls that found no live entry.
+     *
+     * @return the miss count.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of evicted entries.
+     *
+     * @return the eviction count.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of {@link #get} calls that were hits.
+     *
+     * @return the hit rate, or {@code 1.0} before the first request.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+            || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    /**
+     * Moves a read or updated entry to the most recently used end of its queue, promoting it
+     * from probation to the protected segment under W-TinyLFU.
+     *
+     * @param node the entry.
+     */
+    private void onAccess(Node<K, V> node) {
+        if (node.queue != PROBATION || sketch == null) {
+            queues[node.queue].moveToLast(node);
+            return;
+        }
+        queues[PROBATION].unlink(node);
+        node.queue = PROTECTED;
+        queues[PROTECTED].addLast(node);
+        while (queues[PROTECTED].weight > protectedMaximum) {
+            Node<K, V> demoted = queues[PROTECTED].first();
+            queues[PROTECTED].unlink(demoted);
+            demoted.queue = PROBATION;
+            queues[PROBATION].addLast(demoted);
+        }
+    }
+
+    /**
+     * Evicts entries until the cache fits its maximum.
+     */
+    private void evictEntries() {
+        if (sketch != null) {
+            while (queues[WINDOW].weight > windowMaximum) {
+                admit(queues[WINDOW].first());
+            }
+        }
+        while (totalWeight > maximum) {
+            Node<K, V> victim = victim();
+            if (victim == null) {
+                victim = queues[WINDOW].first();
+            }
+            evict(victim, RemovalCause.SIZE);
+        }
+    }
+
+    /**
+     * Moves the candidate from the window into probation if the main space has room for it or
+     * if it is more popular than the entries it displaces; otherwise evicts it.
+     *
+     * @param candidate the entry at the head of the window.
+     */
+    private void admit(Node<K, V> candidate) {
+        long mainMaximum = maximum - windowMaximum;
+        while (queues[PROBATION].weight + queues[PROTECTED].weight + candidate.weight
+            > mainMaximum) {
+            Node<K, V> victim = victim();
+            if (victim == null) {
+                break;
+            }
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim, RemovalCause.SIZE);
+            } else {
+                evict(candidate, RemovalCause.SIZE);
+                return;
+            }
+        }
+        queues[WINDOW].unlink(candidate);
+        candidate.queue = PROBATION;
+        queues[PROBATION].addLast(candidate);
+    }
+
+    private Node<K, V> victim() {
+        Node<K, V> victim = queues[PROBATION].first();
+        return victim != null ? victim : queues[PROTECTED].first();
+    }
+
+    /**
+     * Removes expired entries from the heads of the queues.
+     *
+     * @param now the current time.
+     */
+    private void expireEntries(long now) {
+        if (expireAfterWriteNanos > 0) {
+            Node<K, V> node;
+            while ((node = writeSentinel.writeNext) != writeSentinel
+                && now - node.writeTime >= expireAfterWriteNanos) {
+                evict(node, RemovalCause.EXPIRED);
+            }
+        }
+        if (expireAfterAccessNanos > 0) {
+            for (AccessQueue<K, V> queue : queues) {
+                Node<K, V> node;
+                while ((node = queue.first()) != null
+                    && now - node.accessTime >= expireAfterAccessNanos) {
+                    evict(node, RemovalCause.EXPIRED);
+                }
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node, RemovalCause cause) {
+        unlink(node);
+        evictionCount++;
+        if (listener != null) {
+            listener.onEviction(node.key, node.value, cause);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        index.remove(node.key);
+        queues[node.queue].unlink(node);
+        totalWeight -= node.weight;
+        if (expireAfterWriteNanos > 0) {
+            unlinkWrite(node);
+        }
+    }
+
+    private void linkWrite(Node<K, V> node) {
+        node.writePrev = writeSentinel.writePrev;
+        node.writeNext = writeSentinel;
+        writeSentinel.writePrev.writeNext = node;
+        writeSentinel.writePrev = node;
+    }
+
+    private void unlinkWrite(Node<K, V> node) {
+        node.writePrev.writeNext = node.writeNext;
+        node.writeNext.writePrev = node.writePrev;
+        node.writePrev = null;
+        node.writeNext = null;
+    }
+
+    /**
+     * Configures and creates a {@link HashTableCache}.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    public static final class Builder<K, V> {
+
+        private long maximum = Long.MAX_VALUE;
+        private Weigher<? super K, ? super V> weigher;
+        private long expireAfterWriteNanos;
+        private long expireAfterAccessNanos;
+        private boolean tinyLfu;
+        private EvictionListener<? super K, ? super V> listener;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits the number of entries.
+         *
+         * @param maximumSize the maximum number of entries.
+         * @return this builder.
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Negative maximum size: " + maximumSize);
+            }
+            this.maximum = maximumSize;
+            this.weigher = null;
+            return this;
+        }
+
+        /**
+         * Limits the total weight of the entries.
+         *
+         * @param maximumWeight the maximum total weight.
+         * @param weigher       computes the weight of each entry.
+         * @return this builder.
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight,
+            Weigher<? super K, ? super V> weigher) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("Negative maximum weight: " + maximumWeight);
+            }
+            this.maximum = maximumWeight;
+            this.weigher = Objects.requireNonNull(weigher);
+            return this;
+        }
+
+        /**
+         * Expires entries the given time after they were created or last updated.
+         *
+         * @param duration the time to live.
+         * @return this builder.
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWriteNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Expires entries the given time after they were last read or written.
+         *
+         * @param duration the idle time.
+         * @return this builder.
+         */
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            this.expireAfterAccessNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Uses the W-TinyLFU policy instead of plain LRU.
+         *
+         * @return this builder.
+         */
+        public Builder<K, V> tinyLfu() {
+            this.tinyLfu = true;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified of every eviction.
+         *
+         * @param listener the listener.
+         * @return this builder.
+         */
+        public Builder<K, V> evictionListener(EvictionListener<? super K, ? super V> listener) {
+            this.listener = Objects.requireNonNull(listener);
+            return this;
+        }
+
+        /**
+         * Sets the time source, in nanoseconds; mostly useful for tests.
+         *
+         * @param ticker the time source.
+         * @return this builder.
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Creates the cache.
+         *
+         * @return a new empty cache.
+         * @throws IllegalStateException if W-TinyLFU is requested without a maximum.
+         */
+        public HashTableCache<K, V> build() {
+            if (tinyLfu && maximum == Long.MAX_VALUE) {
+                throw new IllegalStateException("W-TinyLFU requires a maximum size or weight");
+            }
+            return new HashTableCache<>(this);
+        }
+
+        private static long positiveNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            return duration.toNanos();
+        }
+    }
+}
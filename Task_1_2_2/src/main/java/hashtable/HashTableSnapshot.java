@@ -0,0 +1,602 @@
+package hashtable;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only view of a hash table saved to a binary file. The file is memory-mapped when it
+ * is opened and entries are decoded only when they are looked up, so opening a snapshot of
+ * millions of entries takes about as long as mapping the file.
+ *
+ * <p>The file consists of a header, an open-addressing index and the records. Every index
+ * slot holds the position of a record (in 8-byte units) or {@code 0}. A record is the key
+ * hash, the encoded key and the encoded value, each prefixed by its length; a length of
+ * {@code -1} stands for {@code null}. Records never cross a 1 GiB boundary, so the data can be
+ * mapped in several regions and the file may be larger than a single buffer.</p>
+ *
+ * <p>{@link #write(Iterable, int, Path, Codec, Codec)} first writes a temporary file next to
+ * the target, forces it to disk and then atomically renames it, so after a crash the file is
+ * either the old or the new snapshot, never a partially written one.</p>
+ *
+ * <p>The same format can be written to any position of a {@link FileChannel} or a
+ * {@link ByteBuffer}, for example to ship a table to another process, and read back with
+ * {@link #read(ByteBuffer, Codec, Codec)} directly from the buffer it arrived in, without
+ * copying or decoding it first.</p>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
+public class HashTableSnapshot<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int MAGIC = 0x48545331;
+    private static final int HEADER_SIZE = 32;
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final int ALIGNMENT = 8;
+    private static final int MAX_SLOTS = 1 << 28;
+    private static final int NULL_LENGTH = -1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int size;
+    private final int mask;
+    private final ByteBuffer index;
+    private final ByteBuffer[] regions;
+
+    /**
+     * Destination of a serialized snapshot, written at positions relative to its start.
+     */
+    private interface Sink {
+
+        void write(ByteBuffer source, long position) throws IOException;
+    }
+
+    private HashTableSnapshot(Codec<K> keyCodec, Codec<V> valueCodec, int size, int slots,
+        ByteBuffer index, ByteBuffer[] regions) {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.size = size;
+        this.mask = slots - 1;
+        this.index = index;
+        this.regions = regions;
+    }
+
+    /**
+     * Saves the entries to the file, replacing it atomically. When the method returns, the
+     * contents and the rename are both on disk: the file is forced before it is moved into
+     * place and the directory is forced after.
+     *
+     * @param entries    the entries to save.
+     * @param size       the number of entries.
+     * @param file       the target file.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static <K, V> void write(Iterable<HashTable.Entry<K, V>> entries, int size, Path file,
+        Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(entries, size, (source, position) -> writeFully(channel, source, position),
+                keyCodec, valueCodec);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory, so that a rename inside it survives a power loss. Platforms that
+     * cannot open a directory as a channel (Windows) commit renames with the file system
+     * metadata and are skipped.
+     *
+     * @param directory the directory.
+     * @throws IOException if the directory cannot be forced.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            if (System.getProperty("os.name").startsWith("Windows")) {
+                return;
+            }
+            throw e;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Serializes the hash table to the channel at its current position and advances the
+     * position past the snapshot. The channel is not forced.
+     *
+     * @param table      the hash table.
+     * @param channel    the target channel.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static <K, V> long write(HashTable<K, V> table, FileChannel channel,
+        Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        long base = channel.position();
+        long length = write(table, table.size(),
+            (source, position) -> writeFully(channel, source, base + position),
+            keyCodec, valueCodec);
+        channel.position(base + length);
+        return length;
+    }
+
+    /**
+     * Serializes the hash table into the buffer at its current position and advances the
+     * position past the snapshot.
+     *
+     * @param table      the hash table.
+     * @param buffer     the target buffer.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @return the number of bytes written.
+     * @throws BufferOverflowException if the snapshot does not fit in the remaining space.
+     */
+    public static <K, V> int write(HashTable<K, V> table, ByteBuffer buffer, Codec<K> keyCodec,
+        Codec<V> valueCodec) {
+        int base = buffer.position();
+        long length;
+        try {
+            length = write(table, table.size(), (source, position) -> {
+                if (base + position + source.remaining() > buffer.limit()) {
+                    throw new BufferOverflowException();
+                }
+                buffer.put((int) (base + position), source, source.position(),
+                    source.remaining());
+                source.position(source.limit());
+            }, keyCodec, valueCodec);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        buffer.position((int) (base + length));
+        return (int) length;
+    }
+
+    /**
+     * Writes the header, the index and the records to the sink.
+     *
+     * @return the total length of the snapshot.
+     */
+    private static <K, V> long write(Iterable<HashTable.Entry<K, V>> entries, int size,
+        Sink sink, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        int slots = HashCommon.arraySize(size, 0.5f);
+        if (slots > MAX_SLOTS) {
+            throw new IOException("Too many entries for a snapshot: " + size);
+        }
+        int[] table = new int[slots];
+        int mask = slots - 1;
+        long dataStart = HEADER_SIZE + (long) slots * Integer.BYTES;
+        RecordWriter out = new RecordWriter(sink, dataStart);
+        int count = 0;
+        for (HashTable.Entry<K, V> entry : entries) {
+            if (++count > size) {
+                throw new ConcurrentModificationException();
+            }
+            byte[] key = encode(keyCodec, entry.getKey());
+            byte[] value = encode(valueCodec, entry.getValue());
+            int hash = hash(key);
+            long position = out.append(hash, key, value);
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            long ref = position / ALIGNMENT + 1;
+            if (ref > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot data larger than "
+                    + (long) Integer.MAX_VALUE * ALIGNMENT + " bytes");
+            }
+            table[slot] = (int) ref;
+        }
+        if (count != size) {
+            throw new ConcurrentModificationException();
+        }
+        long dataLength = out.finish();
+
+        ByteBuffer indexBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+        for (int slot : table) {
+            if (!indexBuffer.hasRemaining()) {
+                position += indexBuffer.flip().remaining();
+                sink.write(indexBuffer, position - indexBuffer.remaining());
+                indexBuffer.clear();
+            }
+            indexBuffer.putInt(slot);
+        }
+        sink.write(indexBuffer.flip(), position);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(count).putInt(slots).putInt(0).putLong(dataLength)
+            .putLong(0);
+        sink.write(header.flip(), 0);
+        return dataStart + dataLength;
+    }
+
+    /**
+     * Saves the hash table to the file, replacing it atomically.
+     *
+     * @param table      the hash table.
+     * @param file       the target file.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static <K, V> void write(HashTable<K, V> table, Path file, Codec<K> keyCodec,
+        Codec<V> valueCodec) throws IOException {
+        write(table, table.size(), file, keyCodec, valueCodec);
+    }
+
+    /**
+     * Maps a snapshot file. Nothing is decoded until it is looked up.
+     *
+     * @param file       the snapshot file.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @return the snapshot.
+     * @throws IOException if an I/O error occurs or the file is not a valid snapshot.
+     */
+    public static <K, V> HashTableSnapshot<K, V> open(Path file, Codec<K> keyCodec,
+        Codec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a hash table snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            int slots = header.getInt(8);
+            long dataLength = header.getLong(16);
+            long dataStart = HEADER_SIZE + (long) slots * Integer.BYTES;
+            if (!validHeader(header) || channel.size() != dataStart + dataLength) {
+                throw new IOException("Not a hash table snapshot: " + file);
+            }
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                (long) slots * Integer.BYTES);
+            ByteBuffer[] regions = new ByteBuffer[regionCount(dataLength)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i << REGION_SHIFT;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + start,
+                    Math.min(REGION_SIZE, dataLength - start));
+            }
+            return new HashTableSnapshot<>(keyCodec, valueCodec, header.getInt(4), slots, index,
+                regions);
+        }
+    }
+
+    /**
+     * Returns a read-only view of a snapshot stored in the buffer at its current position,
+     * for example one received from another process or a region of a mapped file. The buffer
+     * is neither copied nor decoded, and its position is advanced past the snapshot. The
+     * buffer must not be modified while the view is in use.
+     *
+     * @param buffer     the buffer holding the snapshot.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @param <K>        the type of keys.
+     * @param <V>        the type of values.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if the buffer does not hold a valid snapshot.
+     */
+    public static <K, V> HashTableSnapshot<K, V> read(ByteBuffer buffer, Codec<K> keyCodec,
+        Codec<V> valueCodec) {
+        int base = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Not a hash table snapshot");
+        }
+        ByteBuffer header = buffer.slice(base, HEADER_SIZE);
+        int slots = header.getInt(8);
+        long dataLength = header.getLong(16);
+        long dataStart = HEADER_SIZE + (long) slots * Integer.BYTES;
+        if (!validHeader(header) || buffer.remaining() < dataStart + dataLength) {
+            throw new IllegalArgumentException("Not a hash table snapshot");
+        }
+        ByteBuffer index = buffer.slice(base + HEADER_SIZE, slots * Integer.BYTES);
+        ByteBuffer[] regions = new ByteBuffer[regionCount(dataLength)];
+        for (int i = 0; i < regions.length; i++) {
+            long start = (long) i << REGION_SHIFT;
+            regions[i] = buffer.slice((int) (base + dataStart + start),
+                (int) Math.min(REGION_SIZE, dataLength - start));
+        }
+        buffer.position((int) (base + dataStart + dataLength));
+        return new HashTableSnapshot<>(keyCodec, valueCodec, header.getInt(4), slots, index,
+            regions);
+    }
+
+    private static boolean validHeader(ByteBuffer header) {
+        int size = header.getInt(4);
+        int slots = header.getInt(8);
+        long dataLength = header.getLong(16);
+        return header.getInt(0) == MAGIC && size >= 0 && slots > 0 && slots <= MAX_SLOTS
+            && Integer.bitCount(slots) == 1 && dataLength >= 0;
+    }
+
+    private static int regionCount(long dataLength) {
+        return (int) ((dataLength + REGION_SIZE - 1) >>> REGION_SHIFT);
+    }
+
+    /**
+     * Returns the number of entries in the snapshot.
+     *
+     * @return the size of the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(K key) {
+        long record = find(key);
+        return record < 0 ? null : readValue(record);
+    }
+
+    /**
+     * Checks if the snapshot contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Decodes every entry into a new in-memory hash table.
+     *
+     * @return a hash table with the contents of the snapshot.
+     */
+    public HashTable<K, V> toHashTable() {
+        HashTable<K, V> table = new HashTable<>(size);
+        for (HashTable.Entry<K, V> entry : this) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    /**
+     * Finds the record of the key.
+     *
+     * @param key the key.
+     * @return the record position, or {@code -1} if the key is absent.
+     */
+    private long find(K key) {
+        byte[] encoded = encode(keyCodec, key);
+        int hash = hash(encoded);
+        int slot = hash & mask;
+        while (true) {
+            int ref = index.getInt(slot * Integer.BYTES);
+            if (ref == 0) {
+                return -1;
+            }
+            long record = (ref - 1L) * ALIGNMENT;
+            ByteBuffer region = region(record);
+            int off = offsetInRegion(record);
+            if (region.getInt(off) == hash && keyEquals(region, off + Integer.BYTES, encoded)) {
+                return record;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static boolean keyEquals(ByteBuffer region, int off, byte[] key) {
+        int length = region.getInt(off);
+        if (key == null || length == NULL_LENGTH) {
+            return key == null && length == NULL_LENGTH;
+        }
+        return length == key.length
+            && region.slice(off + Integer.BYTES, length).equals(ByteBuffer.wrap(key));
+    }
+
+    private ByteBuffer region(long record) {
+        return regions[(int) (record >>> REGION_SHIFT)];
+    }
+
+    private static int offsetInRegion(long record) {
+        return (int) (record & (REGION_SIZE - 1));
+    }
+
+    private K readKey(long record) {
+        return decode(keyCodec, region(record), offsetInRegion(record) + Integer.BYTES);
+    }
+
+    private V readValue(long record) {
+        ByteBuffer region = region(record);
+        int off = offsetInRegion(record) + Integer.BYTES;
+        int keyLength = region.getInt(off);
+        return decode(valueCodec, region,
+            off + Integer.BYTES + Math.max(keyLength, 0));
+    }
+
+    private static <T> T decode(Codec<T> codec, ByteBuffer region, int off) {
+        int length = region.getInt(off);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        return codec.read(region.slice(off + Integer.BYTES, length), length);
+    }
+
+    /**
+     * Encodes a value with the codec.
+     *
+     * @param codec the codec.
+     * @param value the value, may be {@code null}.
+     * @param <T>   the type of the value.
+     * @return the encoded bytes, or {@code null} for a {@code null} value.
+     */
+    static <T> byte[] encode(Codec<T> codec, T value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(codec.size(value));
+        codec.write(value, buffer);
+        return buffer.array();
+    }
+
+    private static int hash(byte[] key) {
+        return key == null ? 0 : HashCommon.hashBytes(ByteBuffer.wrap(key), 0, key.length);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+        throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    /**
+     * Returns an iterator over the entries in the snapshot. Entries are decoded as they are
+     * returned.
+     *
+     * @return an iterator over the entries.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private int slot = -1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public HashTable.Entry<K, V> next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                int ref;
+                do {
+                    ref = index.getInt(++slot * Integer.BYTES);
+                } while (ref == 0);
+                remaining--;
+                long record = (ref - 1L) * ALIGNMENT;
+                return new HashTable.Entry<>(readKey(record), readValue(record), null);
+            }
+        };
+    }
+
+    /**
+     * Appends records to the data section through a staging buffer, keeping records aligned
+     * and inside a single region.
+     */
+    private static final class RecordWriter {
+
+        private final Sink sink;
+        private final long dataStart;
+        private ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private long flushed;
+
+        RecordWriter(Sink sink, long dataStart) {
+            this.sink = sink;
+            this.dataStart = dataStart;
+        }
+
+        private long position() {
+            return flushed + buffer.position();
+        }
+
+        /**
+         * Appends a record.
+         *
+         * @return the position of the record within the data section.
+         */
+        long append(int hash, byte[] key, byte[] value) throws IOException {
+            int length = 3 * Integer.BYTES + (key == null ? 0 : key.length)
+                + (value == null ? 0 : value.length);
+            if (length > REGION_SIZE) {
+                throw new IOException("Entry too large for a snapshot: " + length + " bytes");
+            }
+            long start = align(position());
+            if ((start & (REGION_SIZE - 1)) + length > REGION_SIZE) {
+                start = (start + REGION_SIZE) & ~(REGION_SIZE - 1);
+            }
+            pad(start - position());
+            ensureRemaining(length);
+            buffer.putInt(hash);
+            putBytes(key);
+            putBytes(value);
+            return start;
+        }
+
+        private void putBytes(byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+
+        private void pad(long bytes) throws IOException {
+            while (bytes > 0) {
+                ensureRemaining(1);
+                int chunk = (int) Math.min(bytes, buffer.remaining());
+                buffer.put(new byte[chunk]);
+                bytes -= chunk;
+            }
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        private void flush() throws IOException {
+            int length = buffer.flip().remaining();
+            sink.write(buffer, dataStart + flushed);
+            flushed += length;
+            buffer.clear();
+        }
+
+        /**
+         * Flushes the remaining records.
+         *
+         * @return the length of the data section.
+         */
+        long finish() throws IOException {
+            flush();
+            return flushed;
+        }
+
+        private static long align(long position) {
+            return (position + ALIGNMENT - 1) & -ALIGNMENT;
+        }
+    }
+}
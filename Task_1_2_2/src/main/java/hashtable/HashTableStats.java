@@ -0,0 +1,278 @@
+package hashtable;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the shape and the recorded activity of a {@link HashTable}, taken by
+ * {@link HashTable#stats()}.
+ *
+ * <p>The shape (load and chain lengths) is measured when the snapshot is taken. The activity
+ * (lookups, probe lengths and resizes) is only recorded between {@link HashTable#enableStats()}
+ * and {@link HashTable#disableStats()}; while recording is off those counters stay zero and the
+ * table pays a single null check per lookup. Lookups answered by the Bloom filter of
+ * {@link HashTable#enableBloomFilter()} count as misses with no probes.</p>
+ */
+public final class HashTableStats {
+
+    private final int size;
+    private final int capacity;
+    private final long[] chainLengthHistogram;
+    private final long hitCount;
+    private final long missCount;
+    private final long totalProbes;
+    private final int maxProbeLength;
+    private final int resizeCount;
+    private final long totalResizeNanos;
+    private final long maxResizeNanos;
+    private final long filterRejections;
+    private final long filterFalsePositives;
+    private final int reseedCount;
+
+    HashTableStats(int size, int capacity, long[] chainLengthHistogram, Recorder recorder) {
+        this.size = size;
+        this.capacity = capacity;
+        this.chainLengthHistogram = chainLengthHistogram;
+        Recorder r = recorder == null ? new Recorder() : recorder;
+        this.hitCount = r.hitCount;
+        this.missCount = r.missCount;
+        this.totalProbes = r.totalProbes;
+        this.maxProbeLength = r.maxProbeLength;
+        this.resizeCount = r.resizeCount;
+        this.totalResizeNanos = r.totalResizeNanos;
+        this.maxResizeNanos = r.maxResizeNanos;
+        this.filterRejections = r.filterRejections;
+        this.filterFalsePositives = r.filterFalsePositives;
+        this.reseedCount = r.reseedCount;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the size of the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the capacity of the table.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of entries per bucket.
+     *
+     * @return the load of the table.
+     */
+    public double load() {
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
+    /**
+     * Returns the chain-length histogram: element {@code i} is the number of buckets holding
+     * exactly {@code i} entries.
+     *
+     * @return a copy of the histogram.
+     */
+    public long[] chainLengthHistogram() {
+        return chainLengthHistogram.clone();
+    }
+
+    /**
+     * Returns the length of the longest chain.
+     *
+     * @return the maximum chain length.
+     */
+    public int maxChainLength() {
+        return chainLengthHistogram.length - 1;
+    }
+
+    /**
+     * Returns the average length of the non-empty chains. With a good hash function and the
+     * default load factor it stays close to one.
+     *
+     * @return the average chain length, or 0 if the table is empty.
+     */
+    public double averageChainLength() {
+        long nonEmpty = capacity - chainLengthHistogram[0];
+        return nonEmpty == 0 ? 0 : (double) size / nonEmpty;
+    }
+
+    /**
+     * Returns the number of recorded lookups that found their key.
+     *
+     * @return the hit count.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of recorded lookups that did not find their key.
+     *
+     * @return the miss count.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the fraction of recorded lookups that found their key.
+     *
+     * @return the hit rate, or 1 if no lookups were recorded.
+     */
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns the average number of entries compared per recorded lookup.
+     *
+     * @return the average probe length, or 0 if no lookups were recorded.
+     */
+    public double averageProbeLength() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) totalProbes / lookups;
+    }
+
+    /**
+     * Returns the largest number of entries compared by a single recorded lookup.
+     *
+     * @return the maximum probe length.
+     */
+    public int maxProbeLength() {
+        return maxProbeLength;
+    }
+
+    /**
+     * Returns the number of recorded resizes.
+     *
+     * @return the resize count.
+     */
+    public int resizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * Returns the total time spent in recorded resizes.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long totalResizeNanos() {
+        return totalResizeNanos;
+    }
+
+    /**
+     * Returns the time taken by the slowest recorded resize.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long maxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+    /**
+     * Returns the number of recorded lookups that the Bloom filter answered as misses without
+     * walking a chain.
+     *
+     * @return the filter rejection count.
+     */
+    public long filterRejectionCount() {
+        return filterRejections;
+    }
+
+    /**
+     * Returns the fraction of recorded misses that the Bloom filter did not catch, so that they
+     * still walked a chain.
+     *
+     * @return the false-positive rate, or 0 if no misses were checked against the filter.
+     */
+    public double filterFalsePositiveRate() {
+        long checked = filterRejections + filterFalsePositives;
+        return checked == 0 ? 0 : (double) filterFalsePositives / checked;
+    }
+
+    /**
+     * Returns the number of recorded times the table drew a new hash seed because a chain grew
+     * too long under randomized hashing. A non-zero count suggests colliding keys were chosen
+     * on purpose.
+     *
+     * @return the reseed count.
+     */
+    public int reseedCount() {
+        return reseedCount;
+    }
+
+    /**
+     * Returns a string representation of the statistics.
+     *
+     * @return a one-line summary.
+     */
+    @Override
+    public String toString() {
+        return "HashTableStats{size=" + size
+            + ", capacity=" + capacity
+            + ", load=" + String.format("%.3f", load())
+            + ", chainLengths=" + Arrays.toString(chainLengthHistogram)
+            + ", hits=" + hitCount
+            + ", misses=" + missCount
+            + ", averageProbeLength=" + String.format("%.3f", averageProbeLength())
+            + ", maxProbeLength=" + maxProbeLength
+            + ", resizes=" + resizeCount
+            + ", resizeNanos=" + totalResizeNanos
+            + ", filterFalsePositiveRate=" + String.format("%.4f", filterFalsePositiveRate())
+            + ", reseeds=" + reseedCount
+            + "}";
+    }
+
+    /**
+     * The mutable counters a hash table updates while recording is enabled.
+     */
+    static final class Recorder {
+
+        private long hitCount;
+        private long missCount;
+        private long totalProbes;
+        private int maxProbeLength;
+        private int resizeCount;
+        private long totalResizeNanos;
+        private long maxResizeNanos;
+        private long filterRejections;
+        private long filterFalsePositives;
+        private int reseedCount;
+
+        void recordLookup(int probes, boolean found) {
+            if (found) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+            totalProbes += probes;
+            maxProbeLength = Math.max(maxProbeLength, probes);
+        }
+
+        void recordResize(long nanos) {
+            resizeCount++;
+            totalResizeNanos += nanos;
+            maxResizeNanos = Math.max(maxResizeNanos, nanos);
+        }
+
+        void recordFilterRejection() {
+            missCount++;
+            filterRejections++;
+        }
+
+        void recordFilterFalsePositive() {
+            filterFalsePositives++;
+        }
+
+        void recordReseed() {
+            reseedCount++;
+        }
+    }
+}
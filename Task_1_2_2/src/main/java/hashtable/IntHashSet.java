@@ -0,0 +1,381 @@
+package hashtable;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@code int} values without boxing.
+ *
+ * <p>The elements live in a single flat array probed linearly, as in {@link IntIntHashTable}
+ * without the value array, so a set of tens of millions of elements takes about five to ten
+ * bytes per element. Removal shifts the following elements back instead of leaving
+ * tombstones.</p>
+ *
+ * <p>{@link #union}, {@link #intersection} and {@link #difference} return new sets and only
+ * iterate over the smaller operand, probing the larger one.</p>
+ */
+public class IntHashSet {
+
+    private int[] keys;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private boolean containsZero;
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty set sized for the default number of elements (16).
+     */
+    public IntHashSet() {
+        this(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty set that can hold the given number of elements without growing.
+     *
+     * @param expectedSize the expected number of elements.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        allocate(HashCommon.arraySize(expectedSize, HashCommon.LOAD_FACTOR));
+    }
+
+    /**
+     * Constructs a copy of the set by cloning its array, without rehashing.
+     *
+     * @param other the set to copy.
+     */
+    private IntHashSet(IntHashSet other) {
+        this.keys = other.keys.clone();
+        this.n = other.n;
+        this.mask = other.mask;
+        this.maxFill = other.maxFill;
+        this.containsZero = other.containsZero;
+        this.size = other.size;
+    }
+
+    /**
+     * Allocates an array of the given length. The extra last slot stands for the element
+     * {@code 0}, which otherwise marks free slots.
+     *
+     * @param length the power-of-two array length.
+     */
+    private void allocate(int length) {
+        n = length;
+        mask = length - 1;
+        maxFill = HashCommon.maxFill(length, HashCommon.LOAD_FACTOR);
+        keys = new int[length + 1];
+    }
+
+    /**
+     * Finds the slot of the element.
+     *
+     * @param key the element.
+     * @return the slot index, or {@code -(insertion slot) - 1} if the element is absent.
+     */
+    private int find(int key) {
+        if (key == 0) {
+            return containsZero ? n : -(n + 1);
+        }
+        int pos = HashCommon.mix(key) & mask;
+        int curr;
+        while ((curr = keys[pos]) != 0) {
+            if (curr == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    /**
+     * Adds the element to the set.
+     *
+     * @param key the element.
+     * @return {@code true} if the element was not already present.
+     */
+    public boolean add(int key) {
+        int pos = find(key);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (pos == n) {
+            containsZero = true;
+        }
+        keys[pos] = key;
+        modCount++;
+        if (size++ >= maxFill) {
+            rehash(n << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the set contains the element.
+     *
+     * @param key the element.
+     * @return {@code true} if the element is present.
+     */
+    public boolean contains(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Removes the element from the set.
+     *
+     * @param key the element.
+     * @return {@code true} if the element was present.
+     */
+    public boolean remove(int key) {
+        int pos = find(key);
+        if (pos < 0) {
+            return false;
+        }
+        if (pos == n) {
+            containsZero = false;
+        } else {
+            shiftKeys(pos);
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     *
+     * @return the size of the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new set with the elements of both sets.
+     *
+     * @param other the other set.
+     * @return the union.
+     */
+    public IntHashSet union(IntHashSet other) {
+        IntHashSet larger = size >= other.size ? this : other;
+        IntHashSet smaller = larger == this ? other : this;
+        IntHashSet result = new IntHashSet(larger);
+        for (Cursor cursor = smaller.cursor(); cursor.advance(); ) {
+            result.add(cursor.element());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the elements present in both sets.
+     *
+     * @param other the other set.
+     * @return the intersection.
+     */
+    public IntHashSet intersection(IntHashSet other) {
+        IntHashSet larger = size >= other.size ? this : other;
+        IntHashSet smaller = larger == this ? other : this;
+        IntHashSet result = new IntHashSet(smaller.size);
+        for (Cursor cursor = smaller.cursor(); cursor.advance(); ) {
+            if (larger.contains(cursor.element())) {
+                result.add(cursor.element());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the elements of this set that are not in the other one.
+     *
+     * @param other the other set.
+     * @return the difference.
+     */
+    public IntHashSet difference(IntHashSet other) {
+        if (size <= other.size) {
+            IntHashSet result = new IntHashSet(size);
+            for (Cursor cursor = cursor(); cursor.advance(); ) {
+                if (!other.contains(cursor.element())) {
+                    result.add(cursor.element());
+                }
+            }
+            return result;
+        }
+        IntHashSet result = new IntHashSet(this);
+        for (Cursor cursor = other.cursor(); cursor.advance(); ) {
+            result.remove(cursor.element());
+        }
+        return result;
+    }
+
+    /**
+     * Closes the gap left at {@code pos} by moving back every following element of the probe
+     * run whose home slot is not between the gap and its current slot.
+     *
+     * @param pos the slot that was emptied.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int curr;
+            while (true) {
+                if ((curr = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int slot = HashCommon.mix(curr) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+        }
+    }
+
+    /**
+     * Moves every element into an array of the given length.
+     *
+     * @param newN the new power-of-two array length.
+     */
+    private void rehash(int newN) {
+        int[] oldKeys = keys;
+        int oldN = n;
+        allocate(newN);
+        for (int i = 0; i < oldN; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int pos = HashCommon.mix(key) & mask;
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Compares the specified object with this set for equality.
+     *
+     * @param o object to be compared for equality with this set.
+     * @return {@code true} if the specified object is a set with the same elements.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntHashSet other) || size != other.size) {
+            return false;
+        }
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            if (!other.contains(cursor.element())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set. It equals the hash code of a
+     * {@link java.util.Set} holding the same elements as boxed integers.
+     *
+     * @return the hash code value for this set.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            h += cursor.element();
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the set.
+     *
+     * @return a string in the form "[element1, element2, ...]".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        boolean first = true;
+
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(cursor.element());
+            first = false;
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a cursor over the elements of the set. It allocates nothing per element.
+     *
+     * @return a cursor positioned before the first element.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A fail-fast cursor over the elements of the set.
+     */
+    public class Cursor {
+
+        private int pos = -1;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Constructs a new cursor positioned before the first element.
+         */
+        Cursor() {
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return {@code true} if there is a current element, {@code false} at the end.
+         * @throws ConcurrentModificationException if the set was modified after the cursor was
+         *                                         created.
+         */
+        public boolean advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (++pos < n) {
+                if (keys[pos] != 0) {
+                    return true;
+                }
+            }
+            if (pos == n && containsZero) {
+                return true;
+            }
+            pos = n + 1;
+            return false;
+        }
+
+        /**
+         * Returns the current element.
+         *
+         * @return the element.
+         * @throws NoSuchElementException if the cursor is not on an element.
+         */
+        public int element() {
+            if (pos < 0 || pos > n) {
+                throw new NoSuchElementException();
+            }
+            return keys[pos];
+        }
+    }
+}
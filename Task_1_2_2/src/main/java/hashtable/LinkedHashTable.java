@@ -0,0 +1,248 @@
+package hashtable;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+
+/**
+ * A hash table that also links its entries in a doubly linked list, so iteration follows
+ * insertion order or, optionally, access order from the least to the most recently used entry.
+ *
+ * <p>The list is maintained in constant time on every insertion, access and removal, and
+ * iteration walks the list instead of the bucket array, so it never visits empty buckets and
+ * takes time proportional to the size rather than the capacity. Replacing the value of an
+ * existing key does not change the insertion order.</p>
+ *
+ * <p>In access order, {@code get}, {@code getOrDefault} and every operation that replaces a
+ * value move the entry to the end of the list. Together with {@link #removeEldestEntry} this
+ * gives an LRU map:</p>
+ * <pre>{@code
+ * HashTable<K, V> lru = new LinkedHashTable<>(capacity, 0.75f, true) {
+ *     protected boolean removeEldestEntry(HashTable.Entry<K, V> eldest) {
+ *         return size() > capacity;
+ *     }
+ * };
+ * }</pre>
+ *
+ * <p>{@link #weaklyConsistentIterator()} still walks the buckets and does not follow the
+ * list order.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class LinkedHashTable<K, V> extends HashTable<K, V> {
+
+    private final boolean accessOrder;
+    private LinkedEntry<K, V> head;
+    private LinkedEntry<K, V> tail;
+    private int listModCount;
+
+    /**
+     * An entry that also belongs to the ordering list.
+     */
+    static final class LinkedEntry<K, V> extends Entry<K, V> {
+
+        LinkedEntry<K, V> before;
+        LinkedEntry<K, V> after;
+
+        LinkedEntry(int hash, K key, V value, Entry<K, V> next) {
+            super(hash, key, value, next);
+        }
+    }
+
+    /**
+     * Constructs an empty insertion-ordered hash table with the default initial capacity.
+     */
+    public LinkedHashTable() {
+        this.accessOrder = false;
+    }
+
+    /**
+     * Constructs an empty insertion-ordered hash table that holds the expected number of
+     * entries without resizing.
+     *
+     * @param expectedSize the expected number of entries.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public LinkedHashTable(int expectedSize) {
+        super(expectedSize);
+        this.accessOrder = false;
+    }
+
+    /**
+     * Constructs an empty hash table with the given ordering.
+     *
+     * @param expectedSize the expected number of entries.
+     * @param loadFactor   the load factor.
+     * @param accessOrder  {@code true} for access order, {@code false} for insertion order.
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is
+     *                                  not positive.
+     */
+    public LinkedHashTable(int expectedSize, float loadFactor, boolean accessOrder) {
+        super(expectedSize, loadFactor);
+        this.accessOrder = accessOrder;
+    }
+
+    /**
+     * Decides whether the eldest entry is removed after a new key has been inserted. The
+     * default implementation never removes it; subclasses override it to bound the size of
+     * the table, for example as a cache.
+     *
+     * @param eldest the least recently inserted entry, or the least recently accessed one in
+     *               access order.
+     * @return {@code true} to remove the eldest entry.
+     */
+    protected boolean removeEldestEntry(Entry<K, V> eldest) {
+        return false;
+    }
+
+    /**
+     * Returns the first entry in iteration order.
+     *
+     * @return the eldest entry, or {@code null} if the table is empty.
+     */
+    public Entry<K, V> eldest() {
+        return head;
+    }
+
+    @Override
+    Entry<K, V> newEntry(int hash, K key, V value, Entry<K, V> next) {
+        LinkedEntry<K, V> entry = new LinkedEntry<>(hash, key, value, next);
+        linkLast(entry);
+        return entry;
+    }
+
+    @Override
+    void afterEntryInsertion(Entry<K, V> entry) {
+        LinkedEntry<K, V> eldest = head;
+        if (eldest != entry && removeEldestEntry(eldest)) {
+            remove(eldest.key);
+        }
+    }
+
+    @Override
+    void afterEntryAccess(Entry<K, V> entry) {
+        LinkedEntry<K, V> e = (LinkedEntry<K, V>) entry;
+        if (accessOrder && tail != e) {
+            unlink(e);
+            linkLast(e);
+        }
+    }
+
+    @Override
+    void afterEntryRemoval(Entry<K, V> entry) {
+        unlink((LinkedEntry<K, V>) entry);
+    }
+
+    private void linkLast(LinkedEntry<K, V> entry) {
+        entry.before = tail;
+        entry.after = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.after = entry;
+        }
+        tail = entry;
+        listModCount++;
+    }
+
+    private void unlink(LinkedEntry<K, V> entry) {
+        if (entry.before == null) {
+            head = entry.after;
+        } else {
+            entry.before.after = entry.after;
+        }
+        if (entry.after == null) {
+            tail = entry.before;
+        } else {
+            entry.after.before = entry.before;
+        }
+        entry.before = null;
+        entry.after = null;
+        listModCount++;
+    }
+
+    /**
+     * Returns an iterator over the entries in insertion or access order.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new LinkedIterator();
+    }
+
+    /**
+     * Performs the action for each key-value pair in insertion or access order.
+     *
+     * @param action the action to perform.
+     * @throws ConcurrentModificationException if the hash table is modified by the action.
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = listModCount;
+        for (LinkedEntry<K, V> e = head; e != null; e = e.after) {
+            action.accept(e.key, e.value);
+        }
+        if (listModCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns an ordered spliterator over the entries.
+     *
+     * @return a spliterator over the entries in the hash table.
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return Spliterators.spliterator(iterator(), size(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Fail-fast iterator over the ordering list.
+     */
+    private final class LinkedIterator implements Iterator<Entry<K, V>> {
+
+        private LinkedEntry<K, V> next = head;
+        private LinkedEntry<K, V> lastReturned;
+        private int expectedModCount = listModCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (listModCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.after;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (listModCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            LinkedHashTable.this.remove(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = listModCount;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package hashtable;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A hash table that maps object keys to {@code int} values without boxing the values.
+ *
+ * <p>Keys and values live in two flat arrays probed linearly; there are no entry objects.
+ * Removal shifts the following keys back instead of leaving tombstones. A {@code null} key is
+ * permitted, as in {@link HashTable}. Because a primitive cannot be {@code null}, lookups of
+ * absent keys return {@link #defaultReturnValue()} (initially {@code 0}).</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ */
+public class ObjectIntHashTable<K> {
+
+    private K[] keys;
+    private int[] values;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private boolean containsNullKey;
+    private int size;
+    private int modCount;
+    private int defaultReturnValue;
+
+    /**
+     * Constructs an empty hash table sized for the default number of elements (16).
+     */
+    public ObjectIntHashTable() {
+        this(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty hash table that can hold the given number of elements without
+     * growing.
+     *
+     * @param expectedSize the expected number of elements.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public ObjectIntHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        allocate(HashCommon.arraySize(expectedSize, HashCommon.LOAD_FACTOR));
+    }
+
+    /**
+     * Allocates arrays of the given length. The extra last slot holds the {@code null} key,
+     * since {@code null} otherwise marks free slots.
+     *
+     * @param length the power-of-two array length.
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        n = length;
+        mask = length - 1;
+        maxFill = HashCommon.maxFill(length, HashCommon.LOAD_FACTOR);
+        keys = (K[]) new Object[length + 1];
+        values = new int[length + 1];
+    }
+
+    /**
+     * Returns the value reported for absent keys.
+     *
+     * @return the default return value.
+     */
+    public int defaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    /**
+     * Sets the value reported for absent keys.
+     *
+     * @param value the new default return value.
+     */
+    public void defaultReturnValue(int value) {
+        defaultReturnValue = value;
+    }
+
+    /**
+     * Finds the slot of the key.
+     *
+     * @param key the key.
+     * @return the slot index, or {@code -(insertion slot) - 1} if the key is absent.
+     */
+    private int find(Object key) {
+        if (key == null) {
+            return containsNullKey ? n : -(n + 1);
+        }
+        int pos = HashCommon.mix(key.hashCode()) & mask;
+        K curr;
+        while ((curr = keys[pos]) != null) {
+            if (curr.equals(key)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, int value) {
+        int pos = find(key);
+        if (pos >= 0) {
+            values[pos] = value;
+            return;
+        }
+        pos = -pos - 1;
+        if (pos == n) {
+            containsNullKey = true;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        modCount++;
+        if (size++ >= maxFill) {
+            rehash(n << 1);
+        }
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or the default return value if not found.
+     */
+    public int get(Object key) {
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : defaultReturnValue;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or the given default.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public int getOrDefault(Object key, int defaultValue) {
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or the default return value if not
+     *     found.
+     */
+    public int remove(Object key) {
+        int pos = find(key);
+        if (pos < 0) {
+            return defaultReturnValue;
+        }
+        int old = values[pos];
+        if (pos == n) {
+            containsNullKey = false;
+            keys[n] = null;
+        } else {
+            shiftKeys(pos);
+        }
+        size--;
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Updates the value associated with the specified key.
+     *
+     * @param key   the key.
+     * @param value the new value.
+     * @throws NoSuchElementException if the key does not exist.
+     */
+    public void update(K key, int value) {
+        int pos = find(key);
+        if (pos < 0) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+        values[pos] = value;
+        modCount++;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Closes the gap left at {@code pos} by moving back every following key of the probe run
+     * whose home slot is not between the gap and its current slot.
+     *
+     * @param pos the slot that was emptied.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            K curr;
+            while (true) {
+                if ((curr = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                int slot = HashCommon.mix(curr.hashCode()) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+            values[last] = values[pos];
+        }
+    }
+
+    /**
+     * Moves every pair into arrays of the given length.
+     *
+     * @param newN the new power-of-two array length.
+     */
+    private void rehash(int newN) {
+        K[] oldKeys = keys;
+        int[] oldValues = values;
+        int oldN = n;
+        allocate(newN);
+        for (int i = 0; i < oldN; i++) {
+            K key = oldKeys[i];
+            if (key != null) {
+                int pos = HashCommon.mix(key.hashCode()) & mask;
+                while (keys[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+        values[n] = oldValues[oldN];
+        modCount++;
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ObjectIntHashTable<?> other) || size != other.size) {
+            return false;
+        }
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            int pos = other.find(cursor.key());
+            if (pos < 0 || other.values[pos] != cursor.value()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this hash table. It equals the hash code of a
+     * {@link HashTable} holding the same pairs with boxed values.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            h += Objects.hashCode(cursor.key()) ^ cursor.value();
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(cursor.key()).append('=').append(cursor.value());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a cursor over the pairs in the hash table. A cursor replaces the entry iterator
+     * of {@link HashTable} so that iteration allocates nothing per pair.
+     *
+     * @return a cursor positioned before the first pair.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A fail-fast cursor over the pairs of the hash table.
+     */
+    public class Cursor {
+
+        private int pos = -1;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Constructs a new cursor positioned before the first pair.
+         */
+        Cursor() {
+        }
+
+        /**
+         * Moves to the next pair.
+         *
+         * @return {@code true} if there is a current pair, {@code false} at the end.
+         * @throws ConcurrentModificationException if the hash table was modified after the
+         *                                         cursor was created.
+         */
+        public boolean advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (++pos < n) {
+                if (keys[pos] != null) {
+                    return true;
+                }
+            }
+            if (pos == n && containsNullKey) {
+                return true;
+            }
+            pos = n + 1;
+            return false;
+        }
+
+        /**
+         * Returns the key of the current pair.
+         *
+         * @return the key.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        public K key() {
+            checkPosition();
+            return keys[pos];
+        }
+
+        /**
+         * Returns the value of the current pair.
+         *
+         * @return the value.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        public int value() {
+            checkPosition();
+            return values[pos];
+        }
+
+        private void checkPosition() {
+            if (pos < 0 || pos > n) {
+                throw new NoSuchElementException();
+            }
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package hashtable;
+
+import java.nio.ByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A hash table that keeps its keys and values outside the Java heap, so that the number of
+ * entries does not affect garbage collection pauses.
+ *
+ * <p>Keys and values are serialized with a {@link Codec} into fixed-size slots of direct
+ * memory. Each slot holds the key hash, the encoded key and value lengths, and the bytes of
+ * both, padded to the configured maximum sizes. Slots are probed linearly and lookups compare
+ * the encoded key bytes, so nothing is deserialized until a value is returned. The slots are
+ * spread over pages of at most 1 GiB so that the table is not limited by the size of a single
+ * buffer.</p>
+ *
+ * <p>The lifetime of the off-heap memory is not explicit. The pages are direct buffers, and
+ * Java 21 offers no supported way to free one: that needs {@code Arena}, which is still a
+ * preview API there. {@link #close()} only makes the table unusable, after which every
+ * operation throws {@link IllegalStateException}, and drops its references to the pages.
+ * The memory stays reserved, counting against {@code -XX:MaxDirectMemorySize}, until the
+ * garbage collector reclaims the buffers, so creating and closing many large tables in a
+ * row can fail with {@code OutOfMemoryError: Direct buffer memory}.
+ * {@code null} keys and values are not permitted.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class OffHeapHashTable<K, V> implements Iterable<HashTable.Entry<K, V>>, AutoCloseable {
+
+    private static final int MAX_PAGE_BYTES = 1 << 30;
+    private static final int MAX_ENCODED_BYTES = 0xFFFE;
+    private static final int HASH = 0;
+    private static final int KEY_LENGTH = 4;
+    private static final int VALUE_LENGTH = 6;
+    private static final int KEY = 8;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int maxKeyBytes;
+    private final int maxValueBytes;
+    private final int slotSize;
+    private final ByteBuffer keyScratch;
+    private final ByteBuffer valueScratch;
+
+    private ByteBuffer[] pages;
+    private int pageShift;
+    private int pageMask;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty off-heap hash table sized for the default number of elements (16).
+     *
+     * @param keyCodec      the key codec.
+     * @param maxKeyBytes   the largest encoded key, in bytes.
+     * @param valueCodec    the value codec.
+     * @param maxValueBytes the largest encoded value, in bytes.
+     */
+    public OffHeapHashTable(Codec<K> keyCodec, int maxKeyBytes,
+        Codec<V> valueCodec, int maxValueBytes) {
+        this(keyCodec, maxKeyBytes, valueCodec, maxValueBytes, HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty off-heap hash table that can hold the given number of elements
+     * without growing.
+     *
+     * @param keyCodec      the key codec.
+     * @param maxKeyBytes   the largest encoded key, in bytes.
+     * @param valueCodec    the value codec.
+     * @param maxValueBytes the largest encoded value, in bytes.
+     * @param expectedSize  the expected number of elements.
+     * @throws IllegalArgumentException if a maximum size is out of range (0 to 65534 bytes) or
+     *                                  the expected size is negative.
+     */
+    public OffHeapHashTable(Codec<K> keyCodec, int maxKeyBytes,
+        Codec<V> valueCodec, int maxValueBytes, int expectedSize) {
+        if (maxKeyBytes < 0 || maxKeyBytes > MAX_ENCODED_BYTES
+            || maxValueBytes < 0 || maxValueBytes > MAX_ENCODED_BYTES) {
+            throw new IllegalArgumentException("Encoded sizes must be between 0 and "
+                + MAX_ENCODED_BYTES + " bytes");
+        }
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        this.keyCodec = Objects.requireNonNull(keyCodec);
+        this.valueCodec = Objects.requireNonNull(valueCodec);
+        this.maxKeyBytes = maxKeyBytes;
+        this.maxValueBytes = maxValueBytes;
+        this.slotSize = KEY + maxKeyBytes + maxValueBytes;
+        this.keyScratch = ByteBuffer.allocate(maxKeyBytes);
+        this.valueScratch = ByteBuffer.allocate(maxValueBytes);
+        allocate(HashCommon.arraySize(expectedSize, HashCommon.LOAD_FACTOR));
+    }
+
+    /**
+     * Allocates zeroed direct pages for the given number of slots.
+     *
+     * @param slots the power-of-two number of slots.
+     */
+    private void allocate(int slots) {
+        int slotsPerPage = Math.min(slots, Integer.highestOneBit(MAX_PAGE_BYTES / slotSize));
+        n = slots;
+        mask = slots - 1;
+        maxFill = HashCommon.maxFill(slots, HashCommon.LOAD_FACTOR);
+        pageShift = Integer.numberOfTrailingZeros(slotsPerPage);
+        pageMask = slotsPerPage - 1;
+        pages = new ByteBuffer[slots / slotsPerPage];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = ByteBuffer.allocateDirect(slotsPerPage * slotSize);
+        }
+    }
+
+    private ByteBuffer page(int slot) {
+        return pages[slot >>> pageShift];
+    }
+
+    private int offset(int slot) {
+        return (slot & pageMask) * slotSize;
+    }
+
+    private void ensureOpen() {
+        if (pages == null) {
+            throw new IllegalStateException("Off-heap hash table is closed");
+        }
+    }
+
+    /**
+     * Serializes the key into the key scratch buffer.
+     *
+     * @param key the key.
+     * @return the encoded length.
+     */
+    private int encodeKey(K key) {
+        int length = keyCodec.size(Objects.requireNonNull(key));
+        if (length > maxKeyBytes) {
+            throw new IllegalArgumentException("Encoded key is " + length
+                + " bytes, the maximum is " + maxKeyBytes);
+        }
+        keyScratch.clear();
+        keyCodec.write(key, keyScratch);
+        return length;
+    }
+
+    /**
+     * Serializes the value into the value scratch buffer.
+     *
+     * @param value the value.
+     * @return the encoded length.
+     */
+    private int encodeValue(V value) {
+        int length = valueCodec.size(Objects.requireNonNull(value));
+        if (length > maxValueBytes) {
+            throw new IllegalArgumentException("Encoded value is " + length
+                + " bytes, the maximum is " + maxValueBytes);
+        }
+        valueScratch.clear();
+        valueCodec.write(value, valueScratch);
+        return length;
+    }
+
+    /**
+     * Finds the slot holding the key currently in the key scratch buffer.
+     *
+     * @param hash      the key hash.
+     * @param keyLength the encoded key length.
+     * @return the slot, or {@code -(insertion slot) - 1} if the key is absent.
+     */
+    private int find(int hash, int keyLength) {
+        int slot = hash & mask;
+        while (true) {
+            ByteBuffer page = page(slot);
+            int off = offset(slot);
+            int storedLength = page.getChar(off + KEY_LENGTH);
+            if (storedLength == 0) {
+                return -(slot + 1);
+            }
+            if (storedLength == keyLength + 1 && page.getInt(off + HASH) == hash
+                && keyEquals(page, off + KEY, keyLength)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(ByteBuffer page, int off, int length) {
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if (page.getLong(off + i) != keyScratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (page.get(off + i) != keyScratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws IllegalArgumentException if the key or value cannot be encoded or is too large.
+     * @throws IllegalStateException    if the table is at its maximum capacity.
+     */
+    public void put(K key, V value) {
+        ensureOpen();
+        int keyLength = encodeKey(key);
+        int valueLength = encodeValue(value);
+        int hash = HashCommon.hashBytes(keyScratch, 0, keyLength);
+        int slot = find(hash, keyLength);
+        if (slot >= 0) {
+            writeValue(slot, valueLength);
+            return;
+        }
+        slot = -slot - 1;
+        if (size == n - 1) {
+            throw new IllegalStateException("Off-heap hash table is full");
+        }
+        ByteBuffer page = page(slot);
+        int off = offset(slot);
+        page.putInt(off + HASH, hash);
+        page.putChar(off + KEY_LENGTH, (char) (keyLength + 1));
+        page.put(off + KEY, keyScratch, 0, keyLength);
+        writeValue(slot, valueLength);
+        modCount++;
+        if (++size > maxFill && n < HashCommon.MAXIMUM_CAPACITY) {
+            rehash(n << 1);
+        }
+    }
+
+    private void writeValue(int slot, int valueLength) {
+        ByteBuffer page = page(slot);
+        int off = offset(slot);
+        page.putChar(off + VALUE_LENGTH, (char) valueLength);
+        page.put(off + KEY + maxKeyBytes, valueScratch, 0, valueLength);
+    }
+
+    private V readValue(int slot) {
+        ByteBuffer page = page(slot);
+        int off = offset(slot);
+        int length = page.getChar(off + VALUE_LENGTH);
+        return valueCodec.read(page.slice(off + KEY + maxKeyBytes, length), length);
+    }
+
+    private K readKey(int slot) {
+        ByteBuffer page = page(slot);
+        int off = offset(slot);
+        int length = page.getChar(off + KEY_LENGTH) - 1;
+        return keyCodec.read(page.slice(off + KEY, length), length);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(K key) {
+        ensureOpen();
+        int slot = lookup(key);
+        return slot >= 0 ? readValue(slot) : null;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(K key) {
+        ensureOpen();
+        return lookup(key) >= 0;
+    }
+
+    private int lookup(K key) {
+        int keyLength = keyCodec.size(Objects.requireNonNull(key));
+        if (keyLength > maxKeyBytes) {
+            return -1;
+        }
+        keyLength = encodeKey(key);
+        return find(HashCommon.hashBytes(keyScratch, 0, keyLength), keyLength);
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    public V remove(K key) {
+        ensureOpen();
+        int slot = lookup(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = readValue(slot);
+        shiftSlots(slot);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Updates the value associated with the specified key.
+     *
+     * @param key   the key.
+     * @param value the new value.
+     * @throws NoSuchElementException if the key does not exist.
+     */
+    public void update(K key, V value) {
+        ensureOpen();
+        int slot = lookup(key);
+        if (slot < 0) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+        writeValue(slot, encodeValue(value));
+        modCount++;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of direct memory in use by the table's pages.
+     *
+     * @return the number of off-heap bytes, or {@code 0} once closed, even if the pages have
+     *         not been reclaimed yet.
+     */
+    public long offHeapBytes() {
+        return pages == null ? 0 : (long) n * slotSize;
+    }
+
+    /**
+     * Checks whether the table has been closed.
+     *
+     * @return {@code true} if {@link #close()} has been called.
+     */
+    public boolean isClosed() {
+        return pages == null;
+    }
+
+    /**
+     * Drops the off-heap pages; the table cannot be used afterwards. This does not free the
+     * memory: it is returned only when the garbage collector reclaims the now unreachable
+     * pages. Closing a closed table has no effect.
+     */
+    @Override
+    public void close() {
+        pages = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Closes the gap left at {@code slot} by moving back every following slot of the probe
+     * run whose home slot is not between the gap and its current position.
+     *
+     * @param slot the slot being emptied.
+     */
+    private void shiftSlots(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            while (true) {
+                if (page(slot).getChar(offset(slot) + KEY_LENGTH) == 0) {
+                    page(last).putChar(offset(last) + KEY_LENGTH, (char) 0);
+                    return;
+                }
+                int home = page(slot).getInt(offset(slot) + HASH) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            page(last).put(offset(last), page(slot), offset(slot), slotSize);
+        }
+    }
+
+    /**
+     * Moves every slot into newly allocated pages, reusing the stored hashes.
+     *
+     * @param slots the new power-of-two number of slots.
+     */
+    private void rehash(int slots) {
+        ByteBuffer[] oldPages = pages;
+        int oldPageShift = pageShift;
+        int oldPageMask = pageMask;
+        int oldN = n;
+        allocate(slots);
+        for (int i = 0; i < oldN; i++) {
+            ByteBuffer oldPage = oldPages[i >>> oldPageShift];
+            int oldOff = (i & oldPageMask) * slotSize;
+            if (oldPage.getChar(oldOff + KEY_LENGTH) != 0) {
+                int slot = oldPage.getInt(oldOff + HASH) & mask;
+                while (page(slot).getChar(offset(slot) + KEY_LENGTH) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                page(slot).put(offset(slot), oldPage, oldOff, slotSize);
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        if (pages == null) {
+            return "{closed}";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Returns an iterator over the entries in the hash table. Each entry is deserialized when
+     * it is returned.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        ensureOpen();
+        return new OffHeapIterator();
+    }
+
+    /**
+     * Fail-fast iterator over the occupied slots.
+     */
+    private class OffHeapIterator implements Iterator<HashTable.Entry<K, V>> {
+
+        private int slot = -1;
+        private final int expectedModCount = modCount;
+
+        OffHeapIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (++slot < n) {
+                if (page(slot).getChar(offset(slot) + KEY_LENGTH) != 0) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < n;
+        }
+
+        /**
+         * Returns the next entry in the iteration.
+         *
+         * @return the next entry.
+         * @throws ConcurrentModificationException if the hash table was modified or closed
+         *                                         after the iterator was created.
+         * @throws NoSuchElementException          if the iteration has no more elements.
+         */
+        @Override
+        public HashTable.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (slot >= n) {
+                throw new NoSuchElementException();
+            }
+            HashTable.Entry<K, V> entry = new HashTable.Entry<>(readKey(slot), readValue(slot),
+                null);
+            advance();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,762 @@
+package hashtable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable hash table whose {@link #put} and {@link #remove} return new versions that share
+ * most of their structure with the old one, so keeping a snapshot costs nothing and a change
+ * costs a handful of small array copies.
+ *
+ * <p>The table is a hash array mapped trie in the compressed (CHAMP) layout: every node
+ * consumes five bits of the key hash and keeps two 32-bit bitmaps, one for the entries stored
+ * inline and one for the child nodes, over a single array holding the inline keys and values
+ * followed by the children. Keys whose hashes are equal in all 32 bits end up in a collision
+ * node at the bottom of the trie.</p>
+ *
+ * <p>Many changes in a row are cheaper through a {@link Builder}: nodes created by a builder
+ * belong to it and are edited in place until {@link Builder#build()} is called.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public final class PersistentHashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_LENGTH = 32;
+    private static final int MAX_DEPTH = (HASH_LENGTH + BITS - 1) / BITS + 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentHashTable<?, ?> EMPTY =
+        new PersistentHashTable<>(new BitmapNode(null, 0, 0, new Object[0]), 0, 0);
+
+    private final Node root;
+    private final int size;
+    private final int hashCode;
+
+    private PersistentHashTable(Node root, int size, int hashCode) {
+        this.root = root;
+        this.size = size;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * Returns the empty table.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return the empty table.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashTable<K, V> empty() {
+        return (PersistentHashTable<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent table with the entries of the given hash table.
+     *
+     * @param table the source table.
+     * @param <K>   the type of keys.
+     * @param <V>   the type of values.
+     * @return the persistent copy.
+     */
+    public static <K, V> PersistentHashTable<K, V> copyOf(HashTable<K, V> table) {
+        Builder<K, V> builder = builder();
+        for (HashTable.Entry<K, V> entry : table) {
+            builder.put(entry.key, entry.value);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a builder that starts empty.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return a new builder.
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return PersistentHashTable.<K, V>empty().toBuilder();
+    }
+
+    /**
+     * Returns a builder that starts from this table. The table itself is not affected by
+     * changes made through the builder.
+     *
+     * @return a new builder.
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, size, hashCode);
+    }
+
+    private static int trieHash(Object key) {
+        return HashCommon.mix(HashTable.hash(key));
+    }
+
+    private static int entryHash(Object key, Object value) {
+        return HashTable.hash(key) ^ Objects.hashCode(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(Object key, V defaultValue) {
+        Object value = root.find(key, trieHash(key), 0);
+        return value == NOT_FOUND ? defaultValue : cast(value);
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        return root.find(key, trieHash(key), 0) != NOT_FOUND;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a version of this table in which the key is mapped to the value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the new version, or this table if the key was already mapped to the same value.
+     */
+    public PersistentHashTable<K, V> put(K key, V value) {
+        Change change = new Change();
+        Node newRoot = root.put(null, key, value, trieHash(key), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashTable<>(newRoot, size + (change.added ? 1 : 0),
+            hashCode + change.hashDelta(key, value));
+    }
+
+    /**
+     * Returns a version of this table without the key.
+     *
+     * @param key the key.
+     * @return the new version, or this table if the key was absent.
+     */
+    public PersistentHashTable<K, V> remove(Object key) {
+        Change change = new Change();
+        Node newRoot = root.remove(null, key, trieHash(key), 0, change);
+        if (!change.removed) {
+            return this;
+        }
+        return new PersistentHashTable<>(newRoot, size - 1,
+            hashCode - entryHash(key, change.oldValue));
+    }
+
+    /**
+     * Returns an iterator over the entries.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new TrieIterator<>(root);
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentHashTable<?, ?> other)) {
+            return false;
+        }
+        if (size != other.size || hashCode != other.hashCode) {
+            return false;
+        }
+        if (root == other.root) {
+            return true;
+        }
+        for (HashTable.Entry<K, V> entry : this) {
+            Object value = other.root.find(entry.key, trieHash(entry.key), 0);
+            if (value == NOT_FOUND || !Objects.equals(entry.value, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this hash table, the same as that of a {@link HashTable}
+     * with the same entries.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * A mutable view for bulk edits. It edits the nodes it created in place and copies shared
+     * nodes on first write, so a series of changes allocates far less than the same series on
+     * the persistent table.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    public static final class Builder<K, V> {
+
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+        private int hashCode;
+
+        private Builder(Node root, int size, int hashCode) {
+            this.root = root;
+            this.size = size;
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * Adds a key-value pair. If the key already exists, its value is updated.
+         *
+         * @param key   the key.
+         * @param value the value.
+         * @return this builder.
+         */
+        public Builder<K, V> put(K key, V value) {
+            Change change = new Change();
+            root = root.put(owner, key, value, trieHash(key), 0, change);
+            if (change.added) {
+                size++;
+            }
+            hashCode += change.hashDelta(key, value);
+            return this;
+        }
+
+        /**
+         * Removes the key.
+         *
+         * @param key the key.
+         * @return this builder.
+         */
+        public Builder<K, V> remove(Object key) {
+            Change change = new Change();
+            root = root.remove(owner, key, trieHash(key), 0, change);
+            if (change.removed) {
+                size--;
+                hashCode -= entryHash(key, change.oldValue);
+            }
+            return this;
+        }
+
+        /**
+         * Retrieves the value associated with the specified key.
+         *
+         * @param key the key.
+         * @return the value corresponding to the key, or {@code null} if not found.
+         */
+        public V get(Object key) {
+            Object value = root.find(key, trieHash(key), 0);
+            return value == NOT_FOUND ? null : cast(value);
+        }
+
+        /**
+         * Checks if the builder contains the specified key.
+         *
+         * @param key the key.
+         * @return {@code true} if the key exists, {@code false} otherwise.
+         */
+        public boolean containsKey(Object key) {
+            return root.find(key, trieHash(key), 0) != NOT_FOUND;
+        }
+
+        /**
+         * Returns the number of key-value pairs.
+         *
+         * @return the current size.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns a persistent table with the current contents in O(1). The builder stays
+         * usable; its next changes copy the nodes they touch instead of editing the returned
+         * table.
+         *
+         * @return the persistent table.
+         */
+        public PersistentHashTable<K, V> build() {
+            owner = new Object();
+            return new PersistentHashTable<>(root, size, hashCode);
+        }
+    }
+
+    /**
+     * Records what a put or remove did, so the size and the hash code can be updated.
+     */
+    private static final class Change {
+
+        boolean added;
+        boolean replaced;
+        boolean removed;
+        Object oldValue;
+
+        int hashDelta(Object key, Object value) {
+            if (added) {
+                return entryHash(key, value);
+            }
+            if (replaced) {
+                return entryHash(key, value) - entryHash(key, oldValue);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A trie node. Nodes are immutable unless their owner is the builder editing them.
+     */
+    private abstract static class Node {
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object owner, Object key, Object value, int hash, int shift,
+            Change change);
+
+        abstract Node remove(Object owner, Object key, int hash, int shift, Change change);
+
+        abstract int payloadArity();
+
+        abstract Object keyAt(int index);
+
+        abstract Object valueAt(int index);
+
+        abstract int nodeArity();
+
+        abstract Node nodeAt(int index);
+
+        boolean hasSingleEntry() {
+            return payloadArity() == 1 && nodeArity() == 0;
+        }
+    }
+
+    /**
+     * An inner node: inline entries selected by {@code dataMap} at the front of
+     * {@code content}, child nodes selected by {@code nodeMap} at the back in reverse order.
+     */
+    private static final class BitmapNode extends Node {
+
+        private final Object owner;
+        private int dataMap;
+        private int nodeMap;
+        private Object[] content;
+
+        BitmapNode(Object owner, int dataMap, int nodeMap, Object[] content) {
+            this.owner = owner;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private static int index(int map, int bit) {
+            return Integer.bitCount(map & (bit - 1));
+        }
+
+        private boolean editable(Object editor) {
+            return editor != null && editor == owner;
+        }
+
+        private Node child(int bit) {
+            return (Node) content[content.length - 1 - index(nodeMap, bit)];
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * index(dataMap, bit);
+                return Objects.equals(content[i], key) ? content[i + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return child(bit).find(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object editor, Object key, Object value, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * index(dataMap, bit);
+                Object current = content[i];
+                if (Objects.equals(current, key)) {
+                    Object old = content[i + 1];
+                    if (old == value) {
+                        return this;
+                    }
+                    change.replaced = true;
+                    change.oldValue = old;
+                    return setAt(editor, i + 1, value);
+                }
+                change.added = true;
+                Node merged = mergeTwo(editor, current, content[i + 1], trieHash(current),
+                    key, value, hash, shift + BITS);
+                return inlineToNode(editor, bit, merged);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = child(bit);
+                Node updated = child.put(editor, key, value, hash, shift + BITS, change);
+                if (updated == child) {
+                    return this;
+                }
+                return setAt(editor, content.length - 1 - index(nodeMap, bit), updated);
+            }
+            change.added = true;
+            return insertInline(editor, bit, key, value);
+        }
+
+        @Override
+        Node remove(Object editor, Object key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * index(dataMap, bit);
+                if (!Objects.equals(content[i], key)) {
+                    return this;
+                }
+                change.removed = true;
+                change.oldValue = content[i + 1];
+                return removeInline(editor, bit);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = child(bit);
+                Node updated = child.remove(editor, key, hash, shift + BITS, change);
+                if (!change.removed) {
+                    return this;
+                }
+                if (updated.hasSingleEntry()) {
+                    if (dataMap == 0 && nodeMap == bit && shift > 0) {
+                        return updated;
+                    }
+                    return nodeToInline(editor, bit, updated);
+                }
+                return setAt(editor, content.length - 1 - index(nodeMap, bit), updated);
+            }
+            return this;
+        }
+
+        private Node setAt(Object editor, int index, Object value) {
+            if (editable(editor)) {
+                content[index] = value;
+                return this;
+            }
+            Object[] copy = content.clone();
+            copy[index] = value;
+            return new BitmapNode(editor, dataMap, nodeMap, copy);
+        }
+
+        private Node update(Object editor, int newDataMap, int newNodeMap, Object[] newContent) {
+            if (editable(editor)) {
+                dataMap = newDataMap;
+                nodeMap = newNodeMap;
+                content = newContent;
+                return this;
+            }
+            return new BitmapNode(editor, newDataMap, newNodeMap, newContent);
+        }
+
+        private Node insertInline(Object editor, int bit, Object key, Object value) {
+            int i = 2 * index(dataMap, bit);
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, i);
+            copy[i] = key;
+            copy[i + 1] = value;
+            System.arraycopy(content, i, copy, i + 2, content.length - i);
+            return update(editor, dataMap | bit, nodeMap, copy);
+        }
+
+        private Node removeInline(Object editor, int bit) {
+            int i = 2 * index(dataMap, bit);
+            Object[] copy = new Object[content.length - 2];
+            System.arraycopy(content, 0, copy, 0, i);
+            System.arraycopy(content, i + 2, copy, i, content.length - i - 2);
+            return update(editor, dataMap ^ bit, nodeMap, copy);
+        }
+
+        private Node inlineToNode(Object editor, int bit, Node node) {
+            int dataIndex = 2 * index(dataMap, bit);
+            int nodeIndex = content.length - 2 - index(nodeMap, bit);
+            Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            System.arraycopy(content, dataIndex + 2, copy, dataIndex, nodeIndex - dataIndex);
+            copy[nodeIndex] = node;
+            System.arraycopy(content, nodeIndex + 2, copy, nodeIndex + 1,
+                content.length - nodeIndex - 2);
+            return update(editor, dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        private Node nodeToInline(Object editor, int bit, Node node) {
+            int nodeIndex = content.length - 1 - index(nodeMap, bit);
+            int dataIndex = 2 * index(dataMap, bit);
+            Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            copy[dataIndex] = node.keyAt(0);
+            copy[dataIndex + 1] = node.valueAt(0);
+            System.arraycopy(content, dataIndex, copy, dataIndex + 2, nodeIndex - dataIndex);
+            System.arraycopy(content, nodeIndex + 1, copy, nodeIndex + 2,
+                content.length - nodeIndex - 1);
+            return update(editor, dataMap | bit, nodeMap ^ bit, copy);
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            return (Node) content[content.length - 1 - index];
+        }
+    }
+
+    /**
+     * Builds the smallest subtree that holds two entries with different keys.
+     */
+    private static Node mergeTwo(Object owner, Object key0, Object value0, int hash0,
+        Object key1, Object value1, int hash1, int shift) {
+        if (shift >= HASH_LENGTH) {
+            return new CollisionNode(owner, hash0, new Object[] {key0, value0, key1, value1});
+        }
+        int mask0 = (hash0 >>> shift) & MASK;
+        int mask1 = (hash1 >>> shift) & MASK;
+        if (mask0 != mask1) {
+            Object[] content = mask0 < mask1
+                ? new Object[] {key0, value0, key1, value1}
+                : new Object[] {key1, value1, key0, value0};
+            return new BitmapNode(owner, (1 << mask0) | (1 << mask1), 0, content);
+        }
+        Node child = mergeTwo(owner, key0, value0, hash0, key1, value1, hash1, shift + BITS);
+        return new BitmapNode(owner, 0, 1 << mask0, new Object[] {child});
+    }
+
+    /**
+     * A leaf holding keys whose hashes are equal in all 32 bits, searched linearly.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final Object owner;
+        private final int hash;
+        private Object[] content;
+
+        CollisionNode(Object owner, int hash, Object[] content) {
+            this.owner = owner;
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (Objects.equals(content[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Node update(Object editor, Object[] newContent) {
+            if (editor != null && editor == owner) {
+                content = newContent;
+                return this;
+            }
+            return new CollisionNode(editor, hash, newContent);
+        }
+
+        @Override
+        Object find(Object key, int keyHash, int shift) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : content[i + 1];
+        }
+
+        @Override
+        Node put(Object editor, Object key, Object value, int keyHash, int shift,
+            Change change) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                Object old = content[i + 1];
+                if (old == value) {
+                    return this;
+                }
+                change.replaced = true;
+                change.oldValue = old;
+                Object[] copy = content.clone();
+                copy[i + 1] = value;
+                return update(editor, copy);
+            }
+            change.added = true;
+            Object[] copy = Arrays.copyOf(content, content.length + 2);
+            copy[content.length] = key;
+            copy[content.length + 1] = value;
+            return update(editor, copy);
+        }
+
+        @Override
+        Node remove(Object editor, Object key, int keyHash, int shift, Change change) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            change.removed = true;
+            change.oldValue = content[i + 1];
+            Object[] copy = new Object[content.length - 2];
+            System.arraycopy(content, 0, copy, 0, i);
+            System.arraycopy(content, i + 2, copy, i, content.length - i - 2);
+            return update(editor, copy);
+        }
+
+        @Override
+        int payloadArity() {
+            return content.length / 2;
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * Depth-first iterator over the trie with an explicit stack.
+     */
+    private static final class TrieIterator<K, V> implements Iterator<HashTable.Entry<K, V>> {
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] dataIndex = new int[MAX_DEPTH];
+        private final int[] nodeIndex = new int[MAX_DEPTH];
+        private int depth = -1;
+
+        TrieIterator(Node root) {
+            push(root);
+        }
+
+        private void push(Node node) {
+            depth++;
+            nodes[depth] = node;
+            dataIndex[depth] = 0;
+            nodeIndex[depth] = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (dataIndex[depth] < node.payloadArity()) {
+                    return true;
+                }
+                if (nodeIndex[depth] < node.nodeArity()) {
+                    push(node.nodeAt(nodeIndex[depth]++));
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public HashTable.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node node = nodes[depth];
+            int i = dataIndex[depth]++;
+            return new HashTable.Entry<>(cast(node.keyAt(i)), cast(node.valueAt(i)), null);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package hashtable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe hash table split into independent {@link HashTable} shards.
+ *
+ * <p>A key is routed to a shard by the high bits of its mixed hash code, while the shard itself
+ * uses the low bits to choose a bucket, so the two choices are independent. Each shard has its
+ * own lock and grows on its own: writers to different shards never wait for each other, and a
+ * resize only rehashes the entries of one shard while the others stay available. With more
+ * shards than cores, write throughput scales with the number of threads.</p>
+ *
+ * <p>Every operation on a single key locks only that key's shard, and the functions passed to
+ * the compound operations run while holding it. The aggregate operations ({@link #size()},
+ * {@link #iterator()}, {@link #equals(Object)}, {@link #hashCode()}) visit the shards one at a
+ * time, so under concurrent updates they are consistent per shard but are not a snapshot of
+ * the whole table. Like {@link HashTable}, {@code null} keys and values are permitted.</p>
+ *
+ * @param <K> the type of keys maintained by this hash table.
+ * @param <V> the type of mapped values.
+ */
+public class ShardedHashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    private static final int MAXIMUM_SHARDS = 1 << 16;
+
+    private final HashTable<K, V>[] shards;
+    private final int shift;
+
+    /**
+     * Constructs an empty hash table with four shards per available processor.
+     */
+    public ShardedHashTable() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an empty hash table with the given number of shards, rounded up to a power of
+     * two.
+     *
+     * @param shardCount the number of shards.
+     * @throws IllegalArgumentException if the shard count is not positive or too large.
+     */
+    public ShardedHashTable(int shardCount) {
+        this(shardCount, 0);
+    }
+
+    /**
+     * Constructs an empty hash table whose shards together hold the expected number of entries
+     * without resizing.
+     *
+     * @param shardCount   the number of shards, rounded up to a power of two.
+     * @param expectedSize the expected number of entries.
+     * @throws IllegalArgumentException if the shard count is not positive or too large, or the
+     *                                  expected size is negative.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedHashTable(int shardCount, int expectedSize) {
+        if (shardCount <= 0 || shardCount > MAXIMUM_SHARDS) {
+            throw new IllegalArgumentException("Illegal shard count: " + shardCount);
+        }
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        int n = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new HashTable[n];
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(n);
+        int perShard = (int) (expectedSize / (long) n + (expectedSize % n == 0 ? 0 : 1));
+        for (int i = 0; i < n; i++) {
+            shards[i] = new HashTable<>(perShard);
+        }
+    }
+
+    /**
+     * Returns the shard that holds the key.
+     *
+     * @param key the key.
+     * @return the shard.
+     */
+    private HashTable<K, V> shardFor(Object key) {
+        int h = HashCommon.mix(HashTable.hash(key));
+        return shards[(int) ((h & 0xFFFFFFFFL) >>> shift)];
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            shard.put(key, value);
+        }
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(Object key) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.get(key);
+        }
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(Object key, V defaultValue) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.getOrDefault(key, defaultValue);
+        }
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(Object key) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.containsKey(key);
+        }
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    public V remove(Object key) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.remove(key);
+        }
+    }
+
+    /**
+     * Updates the value associated with the specified key.
+     *
+     * @param key   the key.
+     * @param value the new value.
+     * @throws NoSuchElementException if the key does not exist.
+     */
+    public void update(K key, V value) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            shard.update(key, value);
+        }
+    }
+
+    /**
+     * Associates the value with the key unless the key is already mapped to a non-null value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the previous value, or {@code null} if there was none.
+     */
+    public V putIfAbsent(K key, V value) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.putIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * Computes a value for the key if it is absent or mapped to {@code null}, atomically.
+     *
+     * @param key             the key.
+     * @param mappingFunction the function computing the value.
+     * @return the current or computed value.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.computeIfAbsent(key, mappingFunction);
+        }
+    }
+
+    /**
+     * Computes a new value for the key if it is mapped to a non-null value, atomically.
+     *
+     * @param key               the key.
+     * @param remappingFunction the function computing the new value; {@code null} removes the
+     *                          key.
+     * @return the new value, or {@code null} if there is none.
+     */
+    public V computeIfPresent(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.computeIfPresent(key, remappingFunction);
+        }
+    }
+
+    /**
+     * Computes a new value for the key from its current value, atomically.
+     *
+     * @param key               the key.
+     * @param remappingFunction the function computing the new value; {@code null} removes the
+     *                          key.
+     * @return the new value, or {@code null} if there is none.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.compute(key, remappingFunction);
+        }
+    }
+
+    /**
+     * Associates the value with the key if it is absent, or combines it with the current value,
+     * atomically.
+     *
+     * @param key               the key.
+     * @param value             the value to merge.
+     * @param remappingFunction the function combining the old and the new value; {@code null}
+     *                          removes the key.
+     * @return the new value, or {@code null} if there is none.
+     */
+    public V merge(K key, V value,
+        BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        HashTable<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.merge(key, value, remappingFunction);
+        }
+    }
+
+    /**
+     * Returns the number of key-value pairs, summed over the shards. Under concurrent updates
+     * the result is an estimate.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        long total = 0;
+        for (HashTable<K, V> shard : shards) {
+            synchronized (shard) {
+                total += shard.size();
+            }
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns an iterator over the entries. Each shard is copied under its lock when the
+     * iterator reaches it, so the iterator never throws
+     * {@link java.util.ConcurrentModificationException} and holds at most one shard's entries
+     * at a time. The returned entries are snapshots.
+     *
+     * @return an iterator over the entries in the hash table.
+     */
+    @Override
+    public Iterator<HashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private int nextShard;
+            private Object[] keys = new Object[0];
+            private Object[] values = new Object[0];
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == keys.length && nextShard < shards.length) {
+                    copy(shards[nextShard++]);
+                }
+                return position < keys.length;
+            }
+
+            private void copy(HashTable<K, V> shard) {
+                synchronized (shard) {
+                    keys = new Object[shard.size()];
+                    values = new Object[keys.length];
+                    int i = 0;
+                    for (HashTable.Entry<K, V> entry : shard) {
+                        keys[i] = entry.key;
+                        values[i] = entry.value;
+                        i++;
+                    }
+                }
+                position = 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public HashTable.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = position++;
+                return new HashTable.Entry<>((K) keys[i], (V) values[i], null);
+            }
+        };
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShardedHashTable<?, ?> other)) {
+            return false;
+        }
+        int matched = 0;
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!other.containsKey(entry.getKey())
+                || !Objects.equals(entry.getValue(), other.get(entry.getKey()))) {
+                return false;
+            }
+            matched++;
+        }
+        return matched == other.size();
+    }
+
+    /**
+     * Returns the hash code value for this hash table, the sum of the shard hash codes. It
+     * equals the hash code of a {@link HashTable} with the same entries.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (HashTable<K, V> shard : shards) {
+            synchronized (shard) {
+                h += shard.hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (HashTable.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.toString());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
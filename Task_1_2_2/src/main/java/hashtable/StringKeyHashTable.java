@@ -0,0 +1,648 @@
+package hashtable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A hash table with string keys whose bytes are stored inline in a shared arena, for maps with
+ * many short keys.
+ *
+ * <p>The UTF-8 bytes of every key are appended to one {@code byte[]}; an entry is a position in
+ * a few parallel arrays (key offset, key length, hash and value), and an open-addressing index
+ * of {@code int}s points to the entries. There is no entry object, {@code String} or
+ * {@code byte[]} per key, and the hash of each key is stored, so resizing never hashes a key
+ * again. Removed keys leave their bytes behind; the arena is compacted once more than half of
+ * it is garbage.</p>
+ *
+ * <p>Keys can be looked up as a {@link CharSequence} or as a slice of UTF-8 bytes, for example
+ * straight from a network buffer. An ASCII {@code CharSequence} is hashed and compared char by
+ * char against the arena without creating a {@code String} or a byte array; other sequences
+ * are encoded to UTF-8 first. The hash is a word-at-a-time multiply-rotate hash over the key
+ * bytes, not {@link String#hashCode()}. A {@code CharSequence} with an unpaired surrogate has
+ * no UTF-8 form, so every method taking one rejects it with an
+ * {@link IllegalArgumentException}. {@code null} keys are not permitted; {@code null}
+ * values are.</p>
+ *
+ * @param <V> the type of mapped values.
+ */
+public class StringKeyHashTable<V> {
+
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+    private static final int MIN_ARENA = 256;
+    private static final int MAX_ARENA = Integer.MAX_VALUE - 8;
+    private static final VarHandle LONG_LE =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private int[] index;
+    private int mask;
+    private int maxFill;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private Object[] values;
+    private byte[] arena;
+    private int arenaSize;
+    private int garbage;
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty hash table sized for the default number of keys (16).
+     */
+    public StringKeyHashTable() {
+        this(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty hash table that can hold the given number of keys without growing.
+     *
+     * @param expectedSize the expected number of keys.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public StringKeyHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        allocateIndex(HashCommon.arraySize(expectedSize, HashCommon.LOAD_FACTOR));
+        int entries = Math.max(expectedSize, 2);
+        offsets = new int[entries];
+        lengths = new int[entries];
+        hashes = new int[entries];
+        values = new Object[entries];
+        arena = new byte[MIN_ARENA];
+    }
+
+    private void allocateIndex(int length) {
+        index = new int[length];
+        mask = length - 1;
+        maxFill = HashCommon.maxFill(length, HashCommon.LOAD_FACTOR);
+    }
+
+    /**
+     * One multiply-rotate round over eight key bytes.
+     */
+    private static long round(long h, long word) {
+        return Long.rotateLeft(h ^ word * PHI, 31) * PHI;
+    }
+
+    /**
+     * Hashes a slice of bytes, reading eight bytes at a time.
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        long h = length * PHI;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            h = round(h, (long) LONG_LE.get(bytes, offset + i));
+        }
+        if (i < length) {
+            long word = 0;
+            for (int shift = 0; i < length; i++, shift += 8) {
+                word |= (bytes[offset + i] & 0xFFL) << shift;
+            }
+            h = round(h, word);
+        }
+        return HashCommon.mix(h);
+    }
+
+    /**
+     * Hashes an ASCII sequence exactly as {@link #hash(byte[], int, int)} hashes its bytes.
+     */
+    private static int hashAscii(CharSequence key) {
+        int length = key.length();
+        long h = length * PHI;
+        long word = 0;
+        int shift = 0;
+        for (int i = 0; i < length; i++) {
+            word |= (long) key.charAt(i) << shift;
+            shift += 8;
+            if (shift == Long.SIZE) {
+                h = round(h, word);
+                word = 0;
+                shift = 0;
+            }
+        }
+        if (shift > 0) {
+            h = round(h, word);
+        }
+        return HashCommon.mix(h);
+    }
+
+    private static boolean isAscii(CharSequence key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encode(CharSequence key) {
+        ByteBuffer encoded;
+        try {
+            encoded = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .encode(CharBuffer.wrap(key));
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("Key is not valid UTF-16: " + key, e);
+        }
+        return Arrays.copyOfRange(encoded.array(), encoded.arrayOffset() + encoded.position(),
+            encoded.arrayOffset() + encoded.limit());
+    }
+
+    /**
+     * Finds the index slot of a byte key.
+     *
+     * @return the slot, or {@code -(insertion slot) - 1} if the key is absent.
+     */
+    private int find(int hash, byte[] key, int offset, int length) {
+        int pos = hash & mask;
+        int slot;
+        while ((slot = index[pos]) != 0) {
+            int id = slot - 1;
+            if (hashes[id] == hash && lengths[id] == length
+                && Arrays.equals(arena, offsets[id], offsets[id] + length,
+                key, offset, offset + length)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    /**
+     * Finds the index slot of an ASCII key.
+     *
+     * @return the slot, or {@code -(insertion slot) - 1} if the key is absent.
+     */
+    private int findAscii(int hash, CharSequence key) {
+        int length = key.length();
+        int pos = hash & mask;
+        int slot;
+        while ((slot = index[pos]) != 0) {
+            int id = slot - 1;
+            if (hashes[id] == hash && lengths[id] == length && asciiEquals(id, key)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    private boolean asciiEquals(int id, CharSequence key) {
+        int offset = offsets[id];
+        for (int i = 0; i < key.length(); i++) {
+            if (arena[offset + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int find(CharSequence key) {
+        if (isAscii(key)) {
+            return findAscii(hashAscii(key), key);
+        }
+        byte[] bytes = encode(key);
+        return find(hash(bytes, 0, bytes.length), bytes, 0, bytes.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int pos) {
+        return (V) values[index[pos] - 1];
+    }
+
+    /**
+     * Adds a key-value pair to the hash table. If the key already exists, its value is updated.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws IllegalArgumentException if the key contains an unpaired surrogate.
+     */
+    public void put(CharSequence key, V value) {
+        if (!isAscii(key)) {
+            byte[] bytes = encode(key);
+            put(bytes, 0, bytes.length, value);
+            return;
+        }
+        int hash = hashAscii(key);
+        int pos = findAscii(hash, key);
+        if (pos >= 0) {
+            values[index[pos] - 1] = value;
+            return;
+        }
+        int offset = reserve(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            arena[offset + i] = (byte) key.charAt(i);
+        }
+        insert(-pos - 1, hash, offset, key.length(), value);
+    }
+
+    /**
+     * Adds a key given as UTF-8 bytes. If the key already exists, its value is updated.
+     *
+     * @param key    the array holding the key bytes.
+     * @param offset the index of the first key byte.
+     * @param length the number of key bytes.
+     * @param value  the value.
+     */
+    public void put(byte[] key, int offset, int length, V value) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        int hash = hash(key, offset, length);
+        int pos = find(hash, key, offset, length);
+        if (pos >= 0) {
+            values[index[pos] - 1] = value;
+            return;
+        }
+        int start = reserve(length);
+        System.arraycopy(key, offset, arena, start, length);
+        insert(-pos - 1, hash, start, length, value);
+    }
+
+    /**
+     * Reserves room for a key at the end of the arena, compacting or growing it if needed.
+     *
+     * @param length the number of key bytes.
+     * @return the arena offset of the key.
+     */
+    private int reserve(int length) {
+        if (arenaSize + length > arena.length) {
+            if (garbage > arenaSize / 2 && arenaSize - garbage + length <= arena.length) {
+                compact(arena.length);
+            } else {
+                long needed = (long) arenaSize - garbage + length;
+                if (needed > MAX_ARENA) {
+                    throw new IllegalStateException("Key arena is full");
+                }
+                compact((int) Math.min(MAX_ARENA, Math.max(needed, (long) arena.length * 2)));
+            }
+        }
+        int offset = arenaSize;
+        arenaSize += length;
+        return offset;
+    }
+
+    /**
+     * Copies the live keys, in entry order, into an arena of the given length.
+     */
+    private void compact(int length) {
+        byte[] compacted = new byte[length];
+        int position = 0;
+        for (int id = 0; id < size; id++) {
+            System.arraycopy(arena, offsets[id], compacted, position, lengths[id]);
+            offsets[id] = position;
+            position += lengths[id];
+        }
+        arena = compacted;
+        arenaSize = position;
+        garbage = 0;
+    }
+
+    private void insert(int pos, int hash, int offset, int length, V value) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int id = size;
+        offsets[id] = offset;
+        lengths[id] = length;
+        hashes[id] = hash;
+        values[id] = value;
+        index[pos] = id + 1;
+        modCount++;
+        if (size++ >= maxFill) {
+            rehash(index.length << 1);
+        }
+    }
+
+    /**
+     * Retrieves the value associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(CharSequence key) {
+        int pos = find(key);
+        return pos >= 0 ? valueAt(pos) : null;
+    }
+
+    /**
+     * Retrieves the value associated with a key given as UTF-8 bytes.
+     *
+     * @param key    the array holding the key bytes.
+     * @param offset the index of the first key byte.
+     * @param length the number of key bytes.
+     * @return the value corresponding to the key, or {@code null} if not found.
+     */
+    public V get(byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        int pos = find(hash(key, offset, length), key, offset, length);
+        return pos >= 0 ? valueAt(pos) : null;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key, or a default if the key is absent.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is absent.
+     * @return the value corresponding to the key, or {@code defaultValue} if not found.
+     */
+    public V getOrDefault(CharSequence key, V defaultValue) {
+        int pos = find(key);
+        return pos >= 0 ? valueAt(pos) : defaultValue;
+    }
+
+    /**
+     * Checks if the hash table contains the specified key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(CharSequence key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Checks if the hash table contains a key given as UTF-8 bytes.
+     *
+     * @param key    the array holding the key bytes.
+     * @param offset the index of the first key byte.
+     * @param length the number of key bytes.
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        return find(hash(key, offset, length), key, offset, length) >= 0;
+    }
+
+    /**
+     * Removes the key-value pair associated with the specified key.
+     *
+     * @param key the key.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    public V remove(CharSequence key) {
+        return removeAt(find(key));
+    }
+
+    /**
+     * Removes the pair associated with a key given as UTF-8 bytes.
+     *
+     * @param key    the array holding the key bytes.
+     * @param offset the index of the first key byte.
+     * @param length the number of key bytes.
+     * @return the value that was associated with the key, or {@code null} if not found.
+     */
+    public V remove(byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        return removeAt(find(hash(key, offset, length), key, offset, length));
+    }
+
+    /**
+     * Removes the entry at the index slot. The last entry is moved into the freed position so
+     * the entry arrays stay dense.
+     */
+    private V removeAt(int pos) {
+        if (pos < 0) {
+            return null;
+        }
+        int id = index[pos] - 1;
+        V old = valueAt(pos);
+        shiftKeys(pos);
+        garbage += lengths[id];
+        int last = --size;
+        if (id != last) {
+            int lastPos = hashes[last] & mask;
+            while (index[lastPos] != last + 1) {
+                lastPos = (lastPos + 1) & mask;
+            }
+            index[lastPos] = id + 1;
+            offsets[id] = offsets[last];
+            lengths[id] = lengths[last];
+            hashes[id] = hashes[last];
+            values[id] = values[last];
+        }
+        values[last] = null;
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Closes the gap left at {@code pos} by moving back every following slot of the probe run
+     * whose home slot is not between the gap and its current slot.
+     *
+     * @param pos the slot that was emptied.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int curr;
+            while (true) {
+                if ((curr = index[pos]) == 0) {
+                    index[last] = 0;
+                    return;
+                }
+                int slot = hashes[curr - 1] & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            index[last] = curr;
+        }
+    }
+
+    /**
+     * Rebuilds the index with the given length from the stored hashes.
+     *
+     * @param length the new power-of-two index length.
+     */
+    private void rehash(int length) {
+        allocateIndex(length);
+        for (int id = 0; id < size; id++) {
+            int pos = hashes[id] & mask;
+            while (index[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            index[pos] = id + 1;
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the hash table.
+     *
+     * @return the size of the hash table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Compares the specified object with this hash table for equality.
+     *
+     * @param o object to be compared for equality with this hash table.
+     * @return {@code true} if the specified object is equal to this hash table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StringKeyHashTable<?> other) || size != other.size) {
+            return false;
+        }
+        for (int id = 0; id < size; id++) {
+            int pos = other.find(hashes[id], arena, offsets[id], lengths[id]);
+            if (pos < 0 || !Objects.equals(values[id], other.valueAt(pos))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this hash table. It equals the hash code of a
+     * {@link HashTable} with the same pairs and {@code String} keys, so it decodes every key.
+     *
+     * @return the hash code value for this hash table.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            h += cursor.key().hashCode() ^ Objects.hashCode(cursor.value());
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the hash table.
+     *
+     * @return a string in the form "{key1=value1, key2=value2, ...}".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        boolean first = true;
+
+        for (Cursor cursor = cursor(); cursor.advance(); ) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(cursor.key()).append('=').append(cursor.value());
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a cursor over the pairs in the hash table, in no particular order.
+     *
+     * @return a cursor positioned before the first pair.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A fail-fast cursor over the pairs of the hash table. The key can be read as a
+     * {@code String} or copied out as bytes without decoding it.
+     */
+    public class Cursor {
+
+        private int id = -1;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Constructs a new cursor positioned before the first pair.
+         */
+        Cursor() {
+        }
+
+        /**
+         * Moves to the next pair.
+         *
+         * @return {@code true} if there is a current pair, {@code false} at the end.
+         * @throws ConcurrentModificationException if the hash table was modified after the
+         *                                         cursor was created.
+         */
+        public boolean advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (id < size) {
+                id++;
+            }
+            return id < size;
+        }
+
+        /**
+         * Returns the key of the current pair, decoded into a new {@code String}.
+         *
+         * @return the key.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        public String key() {
+            checkPosition();
+            return new String(arena, offsets[id], lengths[id], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the length of the current key in UTF-8 bytes.
+         *
+         * @return the key length.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        public int keyLength() {
+            checkPosition();
+            return lengths[id];
+        }
+
+        /**
+         * Copies the UTF-8 bytes of the current key into the array.
+         *
+         * @param destination the target array.
+         * @param offset      the index of the first byte to write.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        public void copyKey(byte[] destination, int offset) {
+            checkPosition();
+            System.arraycopy(arena, offsets[id], destination, offset, lengths[id]);
+        }
+
+        /**
+         * Returns the value of the current pair.
+         *
+         * @return the value.
+         * @throws NoSuchElementException if the cursor is not on a pair.
+         */
+        @SuppressWarnings("unchecked")
+        public V value() {
+            checkPosition();
+            return (V) values[id];
+        }
+
+        private void checkPosition() {
+            if (id < 0 || id >= size) {
+                throw new NoSuchElementException();
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package hashtable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of hash table modifications.
+ *
+ * <p>Each record is the payload length, the payload (an operation byte, the encoded key and,
+ * for puts, the encoded value) and a CRC32 of the payload. A crash may leave a torn record at
+ * the end of the file; {@link #replay} stops at the first record that is incomplete or fails
+ * its checksum and cuts the file there, so later appends start from a clean position.</p>
+ *
+ * <p>Appends go to the operating system immediately but are only forced to the disk by
+ * {@link #sync()}.</p>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
+public class WriteLog<K, V> implements AutoCloseable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int NULL_LENGTH = -1;
+
+    private final FileChannel channel;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Receives the operations read back from the log.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     */
+    public interface Listener<K, V> {
+
+        /**
+         * Called for a logged put.
+         *
+         * @param key   the key.
+         * @param value the value.
+         */
+        void put(K key, V value);
+
+        /**
+         * Called for a logged removal.
+         *
+         * @param key the key.
+         */
+        void remove(K key);
+    }
+
+    /**
+     * Opens the log, creating the file if needed. New records are appended after the existing
+     * ones; call {@link #replay} first to read them and discard a torn tail.
+     *
+     * @param file       the log file.
+     * @param keyCodec   the key codec.
+     * @param valueCodec the value codec.
+     * @throws IOException if an I/O error occurs.
+     */
+    public WriteLog(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    /**
+     * Appends a put record.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void appendPut(K key, V value) throws IOException {
+        append(PUT, HashTableSnapshot.encode(keyCodec, key),
+            HashTableSnapshot.encode(valueCodec, value));
+    }
+
+    /**
+     * Appends a removal record.
+     *
+     * @param key the key.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void appendRemove(K key) throws IOException {
+        append(REMOVE, HashTableSnapshot.encode(keyCodec, key), null);
+    }
+
+    private void append(byte op, byte[] key, byte[] value) throws IOException {
+        int payload = 1 + Integer.BYTES + length(key)
+            + (op == PUT ? Integer.BYTES + length(value) : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + payload + Integer.BYTES);
+        buffer.putInt(payload).put(op);
+        putBytes(buffer, key);
+        if (op == PUT) {
+            putBytes(buffer, value);
+        }
+        crc.reset();
+        crc.update(buffer.array(), Integer.BYTES, payload);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Reads every intact record from the beginning of the log and truncates the log after the
+     * last one.
+     *
+     * @param listener receives the operations in the order they were appended.
+     * @return the number of records replayed.
+     * @throws IOException if an I/O error occurs.
+     */
+    public int replay(Listener<K, V> listener) throws IOException {
+        long valid = 0;
+        int records = 0;
+        channel.position(0);
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(channel));
+        DataInputStream in = new DataInputStream(stream);
+        long fileSize = channel.size();
+        try {
+            while (valid < fileSize) {
+                int payload = in.readInt();
+                if (payload <= 0 || payload > fileSize - valid - 2 * Integer.BYTES) {
+                    break;
+                }
+                byte[] bytes = new byte[payload];
+                in.readFully(bytes);
+                int checksum = in.readInt();
+                crc.reset();
+                crc.update(bytes);
+                if ((int) crc.getValue() != checksum || !apply(bytes, listener)) {
+                    break;
+                }
+                valid += Integer.BYTES + payload + Integer.BYTES;
+                records++;
+            }
+        } catch (EOFException e) {
+            // A torn record at the end of the log; everything before it is intact.
+        }
+        channel.truncate(valid);
+        channel.position(valid);
+        return records;
+    }
+
+    private boolean apply(byte[] bytes, Listener<K, V> listener) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte op = buffer.get();
+        K key = read(keyCodec, buffer);
+        if (op == PUT) {
+            listener.put(key, read(valueCodec, buffer));
+            return true;
+        }
+        if (op == REMOVE) {
+            listener.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static <T> T read(Codec<T> codec, ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return codec.read(slice, length);
+    }
+
+    /**
+     * Returns the current length of the log file.
+     *
+     * @return the length in bytes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Discards every record, for example after the table was checkpointed to a snapshot.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void clear() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    /**
+     * Forces the appended records to the disk.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Closes the log file.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
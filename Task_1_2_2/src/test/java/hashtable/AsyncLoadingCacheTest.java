@@ -0,0 +1,210 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class AsyncLoadingCacheTest {
+
+    private long now;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * Returns a builder whose loads run synchronously on the calling thread.
+     */
+    private AsyncLoadingCache.Builder<String, Integer> builder() {
+        return AsyncLoadingCache.<String, Integer>builder()
+            .ticker(() -> now)
+            .executor(Runnable::run);
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncLoadingCache<String, Integer> cache = AsyncLoadingCache.<String, Integer>builder()
+            .build(key -> {
+                assertTrue(Thread.currentThread().isVirtual());
+                release.await();
+                loads.incrementAndGet();
+                return key.length();
+            });
+
+        int threads = 50;
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            futures.add(result);
+            callers.add(Thread.ofVirtual().start(() -> {
+                started.countDown();
+                cache.get("hot").whenComplete((value, failure) -> result.complete(value));
+            }));
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        assertFalse(cache.getIfPresent("hot").isDone());
+        release.countDown();
+        for (CompletableFuture<Integer> future : futures) {
+            assertEquals(3, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.loadCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(threads - 1, cache.hitCount());
+    }
+
+    @Test
+    public void testFailedAndNullLoadsAreNotCached() {
+        AsyncLoadingCache<String, Integer> cache = builder().build(key -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("unavailable");
+            }
+            return key.equals("none") ? null : loads.get();
+        });
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> cache.get("A").get());
+        assertTrue(failure.getCause() instanceof IOException);
+        assertNull(cache.getIfPresent("A"));
+
+        assertEquals(2, cache.get("A").join());
+        assertEquals(2, cache.get("A").join());
+        assertNull(cache.get("none").join());
+        assertNull(cache.getIfPresent("none"));
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.loadCount());
+    }
+
+    @Test
+    public void testRejectedLoadsAreNotCached() {
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        AsyncLoadingCache<String, Integer> cache = AsyncLoadingCache.<String, Integer>builder()
+            .ticker(() -> now)
+            .executor(task -> {
+                if (rejecting.get()) {
+                    throw new RejectedExecutionException("shut down");
+                }
+                task.run();
+            })
+            .refreshAfterWrite(Duration.ofNanos(10))
+            .build(key -> loads.incrementAndGet());
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> cache.get("A").get());
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        assertNull(cache.getIfPresent("A"));
+        assertTrue(cache.get("A").isCompletedExceptionally());
+        assertEquals(0, cache.hitCount());
+        assertEquals(2, cache.missCount());
+
+        rejecting.set(false);
+        assertEquals(1, cache.get("A").join());
+        rejecting.set(true);
+        now = 20;
+        assertEquals(1, cache.get("A").join());
+        assertEquals(1, cache.get("A").join());
+        rejecting.set(false);
+        assertEquals(1, cache.get("A").join());
+        assertEquals(2, cache.get("A").join());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpireAfterWrite() {
+        AsyncLoadingCache<String, Integer> cache = builder()
+            .expireAfterWrite(Duration.ofNanos(100))
+            .build(key -> loads.incrementAndGet());
+        assertEquals(1, cache.get("A").join());
+        now = 99;
+        assertEquals(1, cache.get("A").join());
+        now = 100;
+        assertNull(cache.getIfPresent("A"));
+        assertEquals(2, cache.get("A").join());
+
+        cache.put("B", 10);
+        now = 250;
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class,
+            () -> AsyncLoadingCache.builder().expireAfterWrite(Duration.ZERO));
+    }
+
+    @Test
+    public void testRefreshAheadServesOldValueWhileReloading() {
+        List<Runnable> pending = new ArrayList<>();
+        AsyncLoadingCache<String, Integer> cache = AsyncLoadingCache.<String, Integer>builder()
+            .ticker(() -> now)
+            .executor(pending::add)
+            .refreshAfterWrite(Duration.ofNanos(50))
+            .expireAfterWrite(Duration.ofNanos(1000))
+            .build(key -> loads.incrementAndGet());
+        CompletableFuture<Integer> first = cache.get("A");
+        pending.remove(0).run();
+        assertEquals(1, first.join());
+
+        now = 60;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, cache.get("A").join());
+        }
+        assertEquals(1, pending.size());
+        pending.remove(0).run();
+        assertEquals(2, cache.get("A").join());
+        assertEquals(2, cache.loadCount());
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsOldValue() {
+        AsyncLoadingCache<String, Integer> cache = builder()
+            .refreshAfterWrite(Duration.ofNanos(10))
+            .build(key -> {
+                if (loads.incrementAndGet() == 2) {
+                    throw new IllegalStateException("flaky");
+                }
+                return loads.get();
+            });
+        assertEquals(1, cache.get("A").join());
+        now = 20;
+        assertEquals(1, cache.get("A").join());
+        assertEquals(1, cache.get("A").join());
+        assertEquals(3, cache.get("A").join());
+
+        cache.refresh("A");
+        assertEquals(4, cache.get("A").join());
+        cache.refresh("B");
+        assertEquals(5, cache.getIfPresent("B").join());
+    }
+
+    @Test
+    public void testPutAndInvalidate() {
+        AsyncLoadingCache<String, Integer> cache = builder().build(key -> loads.incrementAndGet());
+        cache.put("A", 42);
+        CompletableFuture<Integer> cached = cache.get("A");
+        assertEquals(42, cached.join());
+        assertSame(cached, cache.getIfPresent("A"));
+        assertEquals(0, cache.loadCount());
+
+        cache.invalidate("A");
+        assertNull(cache.getIfPresent("A"));
+        assertEquals(1, cache.get("A").join());
+        assertThrows(NullPointerException.class, () -> cache.get(null));
+        assertThrows(NullPointerException.class, () -> cache.put("B", null));
+    }
+}
@@ -0,0 +1,207 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentHashTableTest {
+
+    private static final int THREADS = 8;
+
+    private ConcurrentHashTable<String, Integer> hashTable;
+
+    @BeforeEach
+    public void setUp() {
+        hashTable = new ConcurrentHashTable<>();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        hashTable.put("One", 1);
+        hashTable.put("Two", 2);
+        hashTable.put("One", 11);
+
+        assertEquals(11, hashTable.get("One"));
+        assertEquals(2, hashTable.get("Two"));
+        assertNull(hashTable.get("Three"));
+        assertEquals(2, hashTable.size());
+
+        assertEquals(2, hashTable.remove("Two"));
+        assertNull(hashTable.remove("Two"));
+        assertFalse(hashTable.containsKey("Two"));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    public void testUpdate() {
+        hashTable.put("Key", 1);
+        hashTable.update("Key", 2);
+        assertEquals(2, hashTable.get("Key"));
+
+        Exception exception = assertThrows(NoSuchElementException.class,
+            () -> hashTable.update("NonExistentKey", 3));
+        assertEquals("Key not found: NonExistentKey", exception.getMessage());
+    }
+
+    @Test
+    public void testNullsRejected() {
+        assertThrows(NullPointerException.class, () -> hashTable.put(null, 1));
+        assertThrows(NullPointerException.class, () -> hashTable.put("Key", null));
+    }
+
+    @Test
+    public void testCompoundOperations() {
+        assertNull(hashTable.putIfAbsent("A", 1));
+        assertEquals(1, hashTable.putIfAbsent("A", 2));
+
+        assertEquals(5, hashTable.computeIfAbsent("B", k -> 5));
+        assertEquals(5, hashTable.computeIfAbsent("B", k -> 6));
+
+        assertEquals(6, hashTable.computeIfPresent("B", (k, v) -> v + 1));
+        assertNull(hashTable.computeIfPresent("C", (k, v) -> 1));
+        assertNull(hashTable.computeIfPresent("B", (k, v) -> null));
+        assertFalse(hashTable.containsKey("B"));
+
+        assertEquals(1, hashTable.merge("M", 1, Integer::sum));
+        assertEquals(3, hashTable.merge("M", 2, Integer::sum));
+        assertNull(hashTable.merge("M", 0, (a, b) -> null));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    public void testResizeKeepsAllEntries() {
+        for (int i = 0; i < 10_000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        assertEquals(10_000, hashTable.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, hashTable.get("Key" + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentMergeCounts() throws InterruptedException {
+        int perThread = 20_000;
+        runConcurrently(t -> {
+            for (int i = 0; i < perThread; i++) {
+                hashTable.merge("Key" + (i % 1000), 1, Integer::sum);
+            }
+        });
+        assertEquals(1000, hashTable.size());
+        int total = 0;
+        for (HashTable.Entry<String, Integer> entry : hashTable) {
+            total += entry.getValue();
+        }
+        assertEquals(THREADS * perThread, total);
+    }
+
+    @Test
+    public void testConcurrentInsertsDuringResize() throws InterruptedException {
+        int perThread = 25_000;
+        runConcurrently(t -> {
+            for (int i = 0; i < perThread; i++) {
+                hashTable.put("T" + t + "-" + i, i);
+            }
+        });
+        assertEquals(THREADS * perThread, hashTable.size());
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(i, hashTable.get("T" + t + "-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void testComputeIfAbsentRunsOnce() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        runConcurrently(t -> {
+            for (int i = 0; i < 500; i++) {
+                hashTable.computeIfAbsent("Key" + i, k -> calls.incrementAndGet());
+            }
+        });
+        assertEquals(500, calls.get());
+        assertEquals(500, hashTable.size());
+    }
+
+    @Test
+    public void testIteratorIsWeaklyConsistent() {
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        Set<String> seen = new HashSet<>();
+        Iterator<HashTable.Entry<String, Integer>> iterator = hashTable.iterator();
+        int added = 100;
+        while (iterator.hasNext()) {
+            assertTrue(seen.add(iterator.next().getKey()));
+            hashTable.put("Key" + added, added);
+            added++;
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(seen.contains("Key" + i));
+        }
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testEqualsHashCodeToString() {
+        ConcurrentHashTable<String, Integer> otherTable = new ConcurrentHashTable<>();
+        hashTable.put("Key1", 1);
+        hashTable.put("Key2", 2);
+        otherTable.put("Key2", 2);
+        otherTable.put("Key1", 1);
+
+        assertEquals(hashTable, otherTable);
+        assertEquals(hashTable.hashCode(), otherTable.hashCode());
+        assertTrue(hashTable.toString().contains("Key1=1"));
+
+        otherTable.put("Key3", 3);
+        assertNotEquals(hashTable, otherTable);
+    }
+
+    /**
+     * Runs the task on {@link #THREADS} threads that start at the same time.
+     */
+    private void runConcurrently(ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(id);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    private interface ThreadTask {
+        void run(int threadId) throws Exception;
+    }
+}
@@ -0,0 +1,140 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class CuckooHashTableTest {
+
+    /**
+     * A key whose hash code is the same for every instance.
+     */
+    record CollidingKey(int id) {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test
+    public void testMatchesHashTable() {
+        CuckooHashTable<Integer, Integer> cuckoo = new CuckooHashTable<>();
+        HashTable<Integer, Integer> expected = new HashTable<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(50_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), cuckoo.remove(key));
+            } else {
+                expected.put(key, i);
+                cuckoo.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), cuckoo.size());
+        for (int key = 0; key < 50_000; key++) {
+            assertEquals(expected.get(key), cuckoo.get(key));
+            assertEquals(expected.containsKey(key), cuckoo.containsKey(key));
+        }
+        HashTable<Integer, Integer> copy = new HashTable<>();
+        for (HashTable.Entry<Integer, Integer> entry : cuckoo) {
+            assertNull(copy.putIfAbsent(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(expected, copy);
+        assertEquals(expected.hashCode(), cuckoo.hashCode());
+    }
+
+    @Test
+    public void testNullKeyAndValue() {
+        CuckooHashTable<String, Integer> table = new CuckooHashTable<>();
+        table.put(null, 1);
+        table.put("NullValue", null);
+        assertEquals(1, table.get(null));
+        assertTrue(table.containsKey("NullValue"));
+        assertNull(table.get("NullValue"));
+        assertEquals(-1, table.getOrDefault("Missing", -1));
+        assertEquals(1, table.remove(null));
+        assertFalse(table.containsKey(null));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testIncrementalRehash() {
+        CuckooHashTable<Integer, Integer> table = new CuckooHashTable<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        assertFalse(table.isRehashing());
+        int i = 1000;
+        while (!table.isRehashing()) {
+            table.put(i, i);
+            i++;
+        }
+        for (int key = 0; key < i; key++) {
+            assertEquals(key, table.get(key));
+        }
+        int count = 0;
+        for (HashTable.Entry<Integer, Integer> ignored : table) {
+            count++;
+        }
+        assertEquals(i, count);
+        while (table.isRehashing()) {
+            table.put(i, i);
+            i++;
+        }
+        assertEquals(i, table.size());
+        for (int key = 0; key < i; key++) {
+            assertEquals(key, table.get(key));
+        }
+    }
+
+    @Test
+    public void testStashHoldsKeysWithIdenticalHashes() {
+        CuckooHashTable<CollidingKey, Integer> table = new CuckooHashTable<>();
+        for (int i = 0; i < 20; i++) {
+            table.put(new CollidingKey(i), i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            table.put(new CollidingKey(-1 - i), i);
+            table.remove(new CollidingKey(-1 - i));
+        }
+        assertEquals(20, table.size());
+        assertTrue(table.stashSize() >= 12);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, table.get(new CollidingKey(i)));
+        }
+        for (int i = 0; i < 20; i += 2) {
+            assertEquals(i, table.remove(new CollidingKey(i)));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i % 2 == 0 ? null : i, table.get(new CollidingKey(i)));
+        }
+    }
+
+    @Test
+    public void testIteratorFailFastAndEquality() {
+        CuckooHashTable<String, Integer> first = new CuckooHashTable<>();
+        CuckooHashTable<String, Integer> second = new CuckooHashTable<>(10_000);
+        for (int i = 0; i < 100; i++) {
+            first.put("Key" + i, i);
+            second.put("Key" + (99 - i), 99 - i);
+        }
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        second.put("Key0", -1);
+        assertNotEquals(first, second);
+
+        Iterator<HashTable.Entry<String, Integer>> iterator = first.iterator();
+        iterator.next();
+        first.put("Extra", 0);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertEquals("{}", new CuckooHashTable<>().toString());
+    }
+}
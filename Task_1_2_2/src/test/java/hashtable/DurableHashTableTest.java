@@ -0,0 +1,150 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DurableHashTableTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private DurableHashTable<String, Integer> open() throws IOException {
+        return DurableHashTable.open(directory, Codec.STRING, Codec.INT);
+    }
+
+    @Test
+    public void testChangesSurviveReopenThroughLog() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            table.put("A", 1);
+            table.put("B", 2);
+            table.put("A", 3);
+            assertEquals(2, table.remove("B"));
+            assertNull(table.remove("B"));
+            table.sync();
+        }
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertEquals(1, table.size());
+            assertEquals(3, table.get("A"));
+            assertFalse(table.containsKey("B"));
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogateKeyIsNotLogged() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertThrows(IllegalArgumentException.class, () -> table.put("lone\uD800", 1));
+            table.put("lone?", 2);
+        }
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertEquals(1, table.size());
+            assertEquals(1, table.pendingChanges());
+            assertEquals(2, table.get("lone?"));
+        }
+    }
+
+    @Test
+    public void testCheckpointThenLog() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            for (int i = 0; i < 1000; i++) {
+                table.put("Key" + i, i);
+            }
+            table.checkpoint();
+            assertEquals(0, table.pendingChanges());
+            table.remove("Key0");
+            table.put("Key1", -1);
+            table.put("New", 42);
+        }
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertEquals(1000, table.size());
+            assertEquals(3, table.pendingChanges());
+            assertNull(table.get("Key0"));
+            assertEquals(-1, table.get("Key1"));
+            assertEquals(2, table.get("Key2"));
+            assertEquals(42, table.get("New"));
+
+            int count = 0;
+            for (HashTable.Entry<String, Integer> entry : table) {
+                assertEquals(table.get(entry.getKey()), entry.getValue());
+                count++;
+            }
+            assertEquals(1000, count);
+        }
+    }
+
+    @Test
+    public void testReplayingOldLogOverNewSnapshotIsHarmless() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            table.put("A", 1);
+            table.remove("A");
+            table.put("B", 2);
+        }
+        Path log = directory.resolve("table.log");
+        byte[] oldLog = Files.readAllBytes(log);
+        try (DurableHashTable<String, Integer> table = open()) {
+            table.checkpoint();
+        }
+        Files.write(log, oldLog);
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertEquals(1, table.size());
+            assertEquals(2, table.get("B"));
+            assertFalse(table.containsKey("A"));
+            assertTrue(table.toString().contains("B=2"));
+        }
+    }
+
+    @Test
+    public void testCorruptSnapshotFailsToOpen() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            table.put("A", 1);
+            table.checkpoint();
+        }
+        Path snapshot = directory.resolve("table.snapshot");
+        byte[] valid = Files.readAllBytes(snapshot);
+        Files.write(snapshot, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, this::open);
+
+        Files.write(snapshot, valid);
+        try (DurableHashTable<String, Integer> table = open()) {
+            assertEquals(1, table.get("A"));
+        }
+    }
+
+    @Test
+    public void testIteratorIsFailFast() throws IOException {
+        try (DurableHashTable<String, Integer> table = open()) {
+            table.put("A", 1);
+            table.put("B", 2);
+            Iterator<HashTable.Entry<String, Integer>> iterator = table.iterator();
+            iterator.next();
+            table.put("C", 3);
+            assertThrows(ConcurrentModificationException.class, iterator::next);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the FrozenHashTable class.
+ */
+public class FrozenHashTableTest {
+
+    @Test
+    public void testFreezeFindsEveryKey() {
+        HashTable<String, Integer> table = new HashTable<>();
+        for (int i = 0; i < 100_000; i++) {
+            table.put("Key" + i, i);
+        }
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+        assertEquals(100_000, frozen.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, frozen.get("Key" + i));
+        }
+        assertNull(frozen.get("Missing"));
+        assertFalse(frozen.containsKey("Missing"));
+        assertEquals(-1, frozen.getOrDefault("Missing", -1));
+        assertEquals(table, frozen.toHashTable());
+    }
+
+    @Test
+    public void testFreezeIsIndependentOfSource() {
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put("A", 1);
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+        table.put("B", 2);
+        table.remove("A");
+        assertEquals(1, frozen.size());
+        assertEquals(1, frozen.get("A"));
+        assertFalse(frozen.containsKey("B"));
+    }
+
+    @Test
+    public void testEmptyTable() {
+        FrozenHashTable<String, Integer> frozen = new HashTable<String, Integer>().freeze();
+        assertEquals(0, frozen.size());
+        assertNull(frozen.get("A"));
+        assertFalse(frozen.containsKey(null));
+        assertFalse(frozen.iterator().hasNext());
+        assertEquals("{}", frozen.toString());
+    }
+
+    @Test
+    public void testNullKeysValuesAndCollidingHashes() {
+        HashTable<String, String> table = new HashTable<>();
+        table.put(null, "null key");
+        table.put("A", null);
+        table.put("Aa", "first");
+        table.put("BB", "second");
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        FrozenHashTable<String, String> frozen = table.freeze();
+        assertEquals(4, frozen.size());
+        assertEquals("null key", frozen.get(null));
+        assertTrue(frozen.containsKey("A"));
+        assertNull(frozen.get("A"));
+        assertEquals("first", frozen.get("Aa"));
+        assertEquals("second", frozen.get("BB"));
+        assertFalse(frozen.containsKey("C"));
+
+        int count = 0;
+        for (HashTable.Entry<String, String> entry : frozen) {
+            assertEquals(table.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i * i);
+        }
+        FrozenHashTable<Integer, Integer> first = table.freeze();
+        FrozenHashTable<Integer, Integer> second = table.freeze();
+        assertEquals(table.hashCode(), first.hashCode());
+        assertEquals(first, second);
+
+        table.update(5, 0);
+        assertNotEquals(first, table.freeze());
+    }
+}
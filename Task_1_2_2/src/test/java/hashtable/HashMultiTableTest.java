@@ -0,0 +1,121 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class HashMultiTableTest {
+
+    @Test
+    public void testPutAndGet() {
+        HashMultiTable<String, Integer> table = new HashMultiTable<>();
+        table.put("a", 1);
+        table.put("a", 2);
+        table.put("a", 1);
+        table.put("b", 3);
+        table.put(null, null);
+        assertEquals(List.of(1, 2, 1), table.get("a"));
+        assertEquals(List.of(3), table.get("b"));
+        assertEquals(1, table.get(null).size());
+        assertTrue(table.get("missing").isEmpty());
+        assertEquals(5, table.size());
+        assertEquals(3, table.keyCount());
+        assertTrue(table.containsKey(null));
+        assertTrue(table.containsEntry("a", 2));
+        assertFalse(table.containsEntry("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> table.get("a").add(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get("b").get(1));
+    }
+
+    @Test
+    public void testViewFollowsChanges() {
+        HashMultiTable<String, Integer> table = new HashMultiTable<>();
+        List<Integer> view = table.get("key");
+        assertTrue(view.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            table.put("key", i);
+            table.put("other" + i, i);
+        }
+        assertEquals(100, view.size());
+        assertEquals(99, view.get(99));
+        assertTrue(table.remove("key", 50));
+        assertFalse(table.remove("key", 50));
+        assertEquals(99, view.size());
+        assertEquals(51, view.get(50));
+        assertEquals(99, table.removeAll("key"));
+        assertTrue(view.isEmpty());
+        assertEquals(100, table.size());
+        assertEquals(0, table.removeAll("key"));
+    }
+
+    @Test
+    public void testRemoveIndividualPairs() {
+        HashMultiTable<Integer, String> table = new HashMultiTable<>();
+        for (int key = 0; key < 1000; key++) {
+            for (int v = 0; v <= key % 5; v++) {
+                table.put(key, "v" + v);
+            }
+        }
+        for (int key = 0; key < 1000; key++) {
+            assertTrue(table.remove(key, "v0"));
+        }
+        assertEquals(800, table.keyCount());
+        for (int key = 0; key < 1000; key++) {
+            List<String> expected = new ArrayList<>();
+            for (int v = 1; v <= key % 5; v++) {
+                expected.add("v" + v);
+            }
+            assertEquals(expected, table.get(key));
+            assertEquals(!expected.isEmpty(), table.containsKey(key));
+        }
+        assertFalse(table.remove(-1, "v0"));
+    }
+
+    @Test
+    public void testIterationAndEquality() {
+        HashMultiTable<String, Integer> first = new HashMultiTable<>();
+        HashMultiTable<String, Integer> second = new HashMultiTable<>();
+        for (int i = 0; i < 300; i++) {
+            first.put("Key" + i % 30, i);
+        }
+        for (int k = 29; k >= 0; k--) {
+            for (int i = k; i < 300; i += 30) {
+                second.put("Key" + k, i);
+            }
+        }
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        int count = 0;
+        for (HashTable.Entry<String, Integer> entry : first) {
+            assertEquals("Key" + entry.getValue() % 30, entry.getKey());
+            count++;
+        }
+        assertEquals(300, count);
+        List<Integer> visited = new ArrayList<>();
+        first.forEach((key, value) -> visited.add(value));
+        assertEquals(300, visited.size());
+
+        second.remove("Key0", 0);
+        second.put("Key0", 0);
+        assertNotEquals(first, second);
+
+        Iterator<HashTable.Entry<String, Integer>> iterator = first.iterator();
+        iterator.next();
+        first.put("Key0", -1);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+
+        HashMultiTable<String, Integer> small = new HashMultiTable<>();
+        small.put("a", 1);
+        small.put("a", 2);
+        assertEquals("{a=[1, 2]}", small.toString());
+    }
+}
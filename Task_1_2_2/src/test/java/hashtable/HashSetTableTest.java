@@ -0,0 +1,115 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class HashSetTableTest {
+
+    private static <E> Set<E> toSet(HashSetTable<E> set) {
+        Set<E> result = new HashSet<>();
+        for (E element : set) {
+            assertTrue(result.add(element));
+        }
+        return result;
+    }
+
+    private static HashSetTable<String> random(Random random, int count, int bound,
+        Set<String> mirror) {
+        HashSetTable<String> set = new HashSetTable<>();
+        for (int i = 0; i < count; i++) {
+            String element = "E" + random.nextInt(bound);
+            assertEquals(mirror.add(element), set.add(element));
+        }
+        return set;
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        HashSetTable<String> set = new HashSetTable<>();
+        assertTrue(set.add("a"));
+        assertFalse(set.add("a"));
+        assertTrue(set.add(null));
+        assertTrue(set.contains(null));
+        assertTrue(set.contains("a"));
+        assertFalse(set.contains("b"));
+        assertEquals(2, set.size());
+        assertEquals(Set.of("a").hashCode(), set.hashCode());
+        assertTrue(set.remove(null));
+        assertFalse(set.remove(null));
+        assertEquals("[a]", set.toString());
+        assertThrows(IllegalArgumentException.class, () -> new HashSetTable<>(-1));
+    }
+
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(11);
+        Set<String> expected = new HashSet<>();
+        HashSetTable<String> set = random(random, 100_000, 50_000, expected);
+        for (int i = 0; i < 50_000; i++) {
+            String element = "E" + random.nextInt(50_000);
+            assertEquals(expected.remove(element), set.remove(element));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, toSet(set));
+        assertEquals(expected.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(13);
+        Set<String> small = new HashSet<>();
+        Set<String> large = new HashSet<>();
+        HashSetTable<String> a = random(random, 1_000, 20_000, small);
+        HashSetTable<String> b = random(random, 30_000, 20_000, large);
+        a.add(null);
+        b.add(null);
+        small.add(null);
+        large.add(null);
+
+        Set<String> union = new HashSet<>(small);
+        union.addAll(large);
+        Set<String> intersection = new HashSet<>(small);
+        intersection.retainAll(large);
+        Set<String> smallMinusLarge = new HashSet<>(small);
+        smallMinusLarge.removeAll(large);
+        Set<String> largeMinusSmall = new HashSet<>(large);
+        largeMinusSmall.removeAll(small);
+
+        assertEquals(union, toSet(a.union(b)));
+        assertEquals(union, toSet(b.union(a)));
+        assertEquals(intersection, toSet(a.intersection(b)));
+        assertEquals(intersection, toSet(b.intersection(a)));
+        assertEquals(smallMinusLarge, toSet(a.difference(b)));
+        assertEquals(largeMinusSmall, toSet(b.difference(a)));
+        assertEquals(small, toSet(a));
+        assertEquals(large, toSet(b));
+        assertEquals(a.intersection(b), b.intersection(a));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void testIterator() {
+        HashSetTable<Integer> set = new HashSetTable<>();
+        set.add(1);
+        Iterator<Integer> iterator = set.iterator();
+        assertEquals(1, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+
+        Iterator<Integer> stale = set.iterator();
+        set.add(2);
+        assertThrows(ConcurrentModificationException.class, stale::next);
+    }
+}
@@ -0,0 +1,166 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class HashTableCacheTest {
+
+    private long now;
+    private final List<String> evictions = new ArrayList<>();
+
+    private HashTableCache.Builder<String, Integer> builder() {
+        return HashTableCache.<String, Integer>builder()
+            .ticker(() -> now)
+            .evictionListener((key, value, cause) ->
+                evictions.add(key + "=" + value + ":" + cause));
+    }
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        HashTableCache<String, Integer> cache = builder().maximumSize(2).build();
+        cache.put("A", 1);
+        cache.put("B", 2);
+        assertEquals(1, cache.get("A"));
+        cache.put("C", 3);
+
+        assertNull(cache.get("B"));
+        assertEquals(1, cache.get("A"));
+        assertEquals(3, cache.get("C"));
+        assertEquals(2, cache.size());
+        assertEquals(List.of("B=2:SIZE"), evictions);
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        HashTableCache<String, Integer> cache = builder()
+            .maximumWeight(10, (key, value) -> value)
+            .build();
+        cache.put("A", 4);
+        cache.put("B", 4);
+        cache.put("C", 4);
+        assertEquals(8, cache.weightedSize());
+        assertNull(cache.peek("A"));
+
+        cache.put("B", 1);
+        assertEquals(5, cache.weightedSize());
+        cache.put("Huge", 11);
+        assertNull(cache.peek("Huge"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("Negative", -1));
+    }
+
+    @Test
+    public void testExpireAfterWrite() {
+        HashTableCache<String, Integer> cache = builder()
+            .expireAfterWrite(Duration.ofNanos(100))
+            .build();
+        cache.put("A", 1);
+        now = 50;
+        cache.put("B", 2);
+        assertEquals(1, cache.get("A"));
+        now = 100;
+        assertNull(cache.get("A"));
+        assertEquals(2, cache.get("B"));
+        now = 160;
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(List.of("A=1:EXPIRED", "B=2:EXPIRED"), evictions);
+    }
+
+    @Test
+    public void testExpireAfterAccess() {
+        HashTableCache<String, Integer> cache = builder()
+            .expireAfterAccess(Duration.ofNanos(100))
+            .build();
+        cache.put("A", 1);
+        cache.put("B", 2);
+        now = 90;
+        assertEquals(1, cache.get("A"));
+        now = 150;
+        cache.cleanUp();
+        assertNull(cache.peek("B"));
+        assertEquals(1, cache.get("A"));
+        assertEquals(List.of("B=2:EXPIRED"), evictions);
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentKeysUnderScan() {
+        HashTableCache<String, Integer> cache = builder().maximumSize(100).tinyLfu().build();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get("Hot" + i) == null) {
+                    cache.put("Hot" + i, i);
+                }
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("Scan" + i, i);
+        }
+        int hotLeft = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.peek("Hot" + i) != null) {
+                hotLeft++;
+            }
+        }
+        assertTrue(hotLeft >= 45, "hot keys left: " + hotLeft);
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    public void testTinyLfuBeatsLruOnSkewedTrace() {
+        HashTableCache<Integer, Integer> lru = HashTableCache.<Integer, Integer>builder()
+            .maximumSize(100).build();
+        HashTableCache<Integer, Integer> tinyLfu = HashTableCache.<Integer, Integer>builder()
+            .maximumSize(100).tinyLfu().build();
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            int key = i % 3 == 0 ? random.nextInt(100_000) : (int) Math.pow(random.nextInt(1000), 2)
+                % 1000;
+            for (HashTableCache<Integer, Integer> cache : List.of(lru, tinyLfu)) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        assertTrue(tinyLfu.hitRate() > lru.hitRate(),
+            "TinyLFU " + tinyLfu.hitRate() + " vs LRU " + lru.hitRate());
+    }
+
+    @Test
+    public void testRemoveAndStatistics() {
+        HashTableCache<String, Integer> cache = builder().maximumSize(10).build();
+        assertEquals(1.0, cache.hitRate(), 0.0);
+        cache.put("A", 1);
+        assertNotNull(cache.get("A"));
+        assertNull(cache.get("B"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRate(), 1e-9);
+
+        assertEquals(1, cache.remove("A"));
+        assertNull(cache.remove("A"));
+        assertEquals(0, cache.size());
+        assertTrue(evictions.isEmpty());
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        assertThrows(IllegalStateException.class,
+            () -> HashTableCache.<String, Integer>builder().tinyLfu().build());
+        assertThrows(IllegalArgumentException.class,
+            () -> HashTableCache.<String, Integer>builder().maximumSize(-1));
+        assertThrows(IllegalArgumentException.class,
+            () -> HashTableCache.<String, Integer>builder().expireAfterWrite(Duration.ZERO));
+        HashTableCache<String, Integer> cache = builder().build();
+        assertThrows(NullPointerException.class, () -> cache.put("A", null));
+    }
+}
@@ -0,0 +1,170 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HashTableSnapshotTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot");
+        file = directory.resolve("table.snapshot");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        HashTable<String, Integer> table = new HashTable<>();
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+        }
+        HashTableSnapshot.write(table, file, Codec.STRING, Codec.INT);
+        assertFalse(Files.exists(directory.resolve("table.snapshot.tmp")));
+
+        HashTableSnapshot<String, Integer> snapshot =
+            HashTableSnapshot.open(file, Codec.STRING, Codec.INT);
+        assertEquals(10_000, snapshot.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, snapshot.get("Key" + i));
+        }
+        assertNull(snapshot.get("Missing"));
+        assertFalse(snapshot.containsKey("Missing"));
+        assertEquals(table, snapshot.toHashTable());
+    }
+
+    @Test
+    public void testNullKeysAndValues() throws IOException {
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put(null, 1);
+        table.put("NullValue", null);
+        HashTableSnapshot.write(table, file, Codec.STRING, Codec.INT);
+
+        HashTableSnapshot<String, Integer> snapshot =
+            HashTableSnapshot.open(file, Codec.STRING, Codec.INT);
+        assertEquals(1, snapshot.get(null));
+        assertTrue(snapshot.containsKey("NullValue"));
+        assertNull(snapshot.get("NullValue"));
+        assertEquals(table, snapshot.toHashTable());
+    }
+
+    @Test
+    public void testEmptyTableAndReplace() throws IOException {
+        HashTableSnapshot.write(new HashTable<>(), file, Codec.STRING, Codec.INT);
+        HashTableSnapshot<String, Integer> empty =
+            HashTableSnapshot.open(file, Codec.STRING, Codec.INT);
+        assertEquals(0, empty.size());
+        assertFalse(empty.iterator().hasNext());
+
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put("A", 1);
+        HashTableSnapshot.write(table, file, Codec.STRING, Codec.INT);
+        assertEquals(1, HashTableSnapshot.open(file, Codec.STRING, Codec.INT).get("A"));
+    }
+
+    @Test
+    public void testRejectsCorruptFile() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> HashTableSnapshot.open(file, Codec.STRING,
+            Codec.INT));
+
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put("A", 1);
+        HashTableSnapshot.write(table, file, Codec.STRING, Codec.INT);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> HashTableSnapshot.open(file, Codec.STRING,
+            Codec.INT));
+    }
+
+    @Test
+    public void testWriteAndReadBuffer() {
+        HashTable<Long, String> table = new HashTable<>();
+        for (long i = 0; i < 1000; i++) {
+            table.put(i * 31, "Value" + i);
+        }
+        table.put(null, null);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        buffer.putLong(-1);
+        int length = HashTableSnapshot.write(table, buffer, Codec.LONG, Codec.STRING);
+        assertEquals(8 + length, buffer.position());
+        buffer.putLong(-2);
+
+        buffer.flip().position(8);
+        HashTableSnapshot<Long, String> snapshot =
+            HashTableSnapshot.read(buffer, Codec.LONG, Codec.STRING);
+        assertEquals(8 + length, buffer.position());
+        assertEquals(-2, buffer.getLong());
+        assertEquals(1001, snapshot.size());
+        assertEquals("Value7", snapshot.get(7L * 31));
+        assertTrue(snapshot.containsKey(null));
+        assertFalse(snapshot.containsKey(1L));
+        assertEquals(table, snapshot.toHashTable());
+
+        assertThrows(BufferOverflowException.class,
+            () -> HashTableSnapshot.write(table, ByteBuffer.allocate(length - 1), Codec.LONG,
+                Codec.STRING));
+        assertThrows(IllegalArgumentException.class,
+            () -> HashTableSnapshot.read(ByteBuffer.allocate(length), Codec.LONG,
+                Codec.STRING));
+    }
+
+    @Test
+    public void testWriteToChannelAndMap() throws IOException {
+        HashTable<Integer, Integer> first = new HashTable<>();
+        HashTable<Integer, Integer> second = new HashTable<>();
+        for (int i = 0; i < 5000; i++) {
+            first.put(i, -i);
+            second.put(-i, i * i);
+        }
+        long firstLength;
+        long secondLength;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE)) {
+            firstLength = HashTableSnapshot.write(first, channel, Codec.INT, Codec.INT);
+            secondLength = HashTableSnapshot.write(second, channel, Codec.INT, Codec.INT);
+            assertEquals(firstLength + secondLength, channel.position());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            HashTableSnapshot<Integer, Integer> a =
+                HashTableSnapshot.read(mapped, Codec.INT, Codec.INT);
+            HashTableSnapshot<Integer, Integer> b =
+                HashTableSnapshot.read(mapped, Codec.INT, Codec.INT);
+            assertFalse(mapped.hasRemaining());
+            assertEquals(-42, a.get(42));
+            assertEquals(42 * 42, b.get(-42));
+            assertEquals(first, a.toHashTable());
+            assertEquals(second, b.toHashTable());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the HashTableStats class.
+ */
+public class HashTableStatsTest {
+
+    /**
+     * A key whose hash code maps every instance to the same bucket.
+     */
+    private record BadKey(int id) {
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+
+    @Test
+    public void testDisabledStatsReportOnlyShape() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+            table.get(i);
+        }
+        HashTableStats stats = table.stats();
+        assertEquals(100, stats.size());
+        assertEquals(256, stats.capacity());
+        assertEquals(100.0 / 256, stats.load(), 1e-9);
+        assertEquals(0, stats.hitCount());
+        assertEquals(0, stats.missCount());
+        assertEquals(0, stats.resizeCount());
+        assertEquals(1.0, stats.hitRate(), 1e-9);
+        long buckets = 0;
+        long entries = 0;
+        long[] histogram = stats.chainLengthHistogram();
+        for (int length = 0; length < histogram.length; length++) {
+            buckets += histogram[length];
+            entries += length * histogram[length];
+        }
+        assertEquals(256, buckets);
+        assertEquals(100, entries);
+    }
+
+    @Test
+    public void testRecordsLookupsAndResizes() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        table.enableStats();
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            table.containsKey(i);
+        }
+        table.getAll(new Object[] {1, -1}, new Integer[2]);
+
+        HashTableStats stats = table.stats();
+        assertEquals(1001, stats.hitCount());
+        assertEquals(1001, stats.missCount());
+        assertEquals(0.5, stats.hitRate(), 1e-9);
+        assertTrue(stats.averageProbeLength() < 2);
+        assertTrue(stats.maxProbeLength() >= 1);
+        assertEquals(7, stats.resizeCount());
+        assertTrue(stats.totalResizeNanos() >= stats.maxResizeNanos());
+        assertTrue(stats.toString().contains("hits=1001"));
+
+        table.disableStats();
+        table.get(1);
+        assertEquals(0, table.stats().hitCount());
+    }
+
+    @Test
+    public void testBadHashCodeShowsInChainLengths() {
+        HashTable<BadKey, Integer> table = new HashTable<>();
+        table.enableStats();
+        for (int i = 0; i < 50; i++) {
+            table.put(new BadKey(i), i);
+        }
+        table.get(new BadKey(-1));
+        HashTableStats stats = table.stats();
+        assertEquals(50, stats.maxChainLength());
+        assertEquals(50.0, stats.averageChainLength(), 1e-9);
+        assertEquals(50, stats.maxProbeLength());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    public void testBloomFilterRejectsMisses() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < 100_000; i++) {
+            table.put(i, i);
+        }
+        table.enableBloomFilter();
+        table.enableStats();
+        for (int i = 0; i < 100_000; i++) {
+            table.get(-1 - i);
+        }
+        table.get(1);
+        HashTableStats stats = table.stats();
+        assertEquals(100_000, stats.missCount());
+        assertEquals(1, stats.hitCount());
+        assertTrue(stats.filterRejectionCount() > 95_000);
+        assertTrue(stats.filterFalsePositiveRate() < 0.05);
+        assertEquals(stats.filterFalsePositiveRate(),
+            (100_000 - stats.filterRejectionCount()) / 100_000.0, 1e-9);
+        assertTrue(stats.toString().contains("filterFalsePositiveRate="));
+
+        table.disableBloomFilter();
+        table.disableStats();
+        table.enableStats();
+        table.get(-1);
+        assertEquals(0, table.stats().filterRejectionCount());
+        assertEquals(0.0, table.stats().filterFalsePositiveRate(), 0.0);
+    }
+
+    /**
+     * A key whose hash code only depends on a small group number.
+     */
+    private record GroupedKey(int group, int id) {
+        @Override
+        public int hashCode() {
+            return group;
+        }
+    }
+
+    @Test
+    public void testReseedsOnLongChains() {
+        HashTable<GroupedKey, Integer> table = new HashTable<>();
+        table.enableStats();
+        table.enableRandomizedHashing();
+        for (int i = 0; i < 1000; i++) {
+            table.put(new GroupedKey(i, i), i);
+        }
+        assertEquals(0, table.stats().reseedCount());
+
+        for (int i = 0; i < 1000; i++) {
+            table.put(new GroupedKey(-1, i), i);
+        }
+        HashTableStats stats = table.stats();
+        assertEquals(1, stats.reseedCount());
+        assertTrue(stats.toString().contains("reseeds=1"));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.get(new GroupedKey(-1, i)));
+        }
+    }
+}
@@ -8,9 +8,13 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
@@ -231,4 +235,458 @@ public class HashTableTest {
         assertEquals(entry5.hashCode(), entry6.hashCode());
         assertNotEquals(entry1, entry5);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStreams() {
+        for (int i = 0; i < 10_000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        assertEquals(10_000, hashTable.stream().count());
+        long expectedSum = 10_000L * 9_999 / 2;
+        assertEquals(expectedSum,
+            hashTable.parallelStream().mapToLong(HashTable.Entry::getValue).sum());
+        assertEquals(10_000, hashTable.parallelStream()
+            .map(HashTable.Entry::getKey)
+            .collect(Collectors.toSet())
+            .size());
+    }
+
+    @Test
+    public void testSpliteratorSplitsBuckets() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        Spliterator<HashTable.Entry<String, Integer>> spliterator = hashTable.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+
+        Spliterator<HashTable.Entry<String, Integer>> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(500, spliterator.estimateSize());
+
+        List<String> keys = new ArrayList<>();
+        assertTrue(prefix.tryAdvance(entry -> keys.add(entry.getKey())));
+        prefix.forEachRemaining(entry -> keys.add(entry.getKey()));
+        spliterator.forEachRemaining(entry -> keys.add(entry.getKey()));
+        assertEquals(1000, keys.size());
+        assertEquals(1000, keys.stream().distinct().count());
+    }
+
+    @Test
+    public void testForEachAndConcurrentModification() {
+        hashTable.put("A", 1);
+        hashTable.put("B", 2);
+        int[] sum = new int[1];
+        hashTable.forEach((key, value) -> sum[0] += value);
+        assertEquals(3, sum[0]);
+
+        assertThrows(ConcurrentModificationException.class,
+            () -> hashTable.forEach((key, value) -> hashTable.put(key + "!", value)));
+        assertThrows(ConcurrentModificationException.class,
+            () -> hashTable.stream().forEach(entry -> hashTable.remove("A")));
+    }
+
+    @Test
+    public void testBulkOperations() {
+        String[] keys = new String[1000];
+        Integer[] values = new Integer[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "Key" + i;
+            values[i] = i;
+        }
+        hashTable.put("Key0", -1);
+        hashTable.putAll(keys, values);
+        assertEquals(1000, hashTable.size());
+        assertEquals(0, hashTable.get("Key0"));
+
+        Object[] lookups = {"Key1", "Missing", "Key999", null};
+        Integer[] results = new Integer[lookups.length];
+        assertEquals(2, hashTable.getAll(lookups, results));
+        assertEquals(1, results[0]);
+        assertNull(results[1]);
+        assertEquals(999, results[2]);
+        assertNull(results[3]);
+
+        Object[] removals = {"Key1", "Key1", "Missing", "Key2"};
+        assertEquals(2, hashTable.removeAll(removals));
+        assertEquals(998, hashTable.size());
+        assertFalse(hashTable.containsKey("Key1"));
+        assertFalse(hashTable.containsKey("Key2"));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> hashTable.putAll(new String[2], new Integer[1]));
+        assertThrows(IllegalArgumentException.class,
+            () -> hashTable.getAll(new Object[2], new Integer[1]));
+    }
+
+    @Test
+    public void testCompoundOperations() {
+        assertEquals(7, hashTable.getOrDefault("A", 7));
+        assertNull(hashTable.putIfAbsent("A", 1));
+        assertEquals(1, hashTable.putIfAbsent("A", 2));
+        assertEquals(1, hashTable.getOrDefault("A", 7));
+
+        assertNull(hashTable.replace("B", 1));
+        assertFalse(hashTable.containsKey("B"));
+        assertEquals(1, hashTable.replace("A", 3));
+        assertFalse(hashTable.replace("A", 1, 4));
+        assertTrue(hashTable.replace("A", 3, 4));
+        assertEquals(4, hashTable.get("A"));
+
+        assertEquals(4, hashTable.computeIfAbsent("A", key -> 5));
+        assertEquals(2, hashTable.computeIfAbsent("BB", String::length));
+        assertNull(hashTable.computeIfAbsent("C", key -> null));
+        assertFalse(hashTable.containsKey("C"));
+
+        assertNull(hashTable.computeIfPresent("C", (key, value) -> 1));
+        assertEquals(5, hashTable.computeIfPresent("A", (key, value) -> value + 1));
+        assertNull(hashTable.computeIfPresent("A", (key, value) -> null));
+        assertFalse(hashTable.containsKey("A"));
+
+        assertEquals(1, hashTable.compute("D", (key, value) -> value == null ? 1 : value + 1));
+        assertEquals(2, hashTable.compute("D", (key, value) -> value == null ? 1 : value + 1));
+        assertNull(hashTable.compute("D", (key, value) -> null));
+        assertFalse(hashTable.containsKey("D"));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    public void testMergeCountsWords() {
+        String[] words = "a b a c b a".split(" ");
+        for (String word : words) {
+            hashTable.merge(word, 1, Integer::sum);
+        }
+        assertEquals(3, hashTable.get("a"));
+        assertEquals(2, hashTable.get("b"));
+        assertEquals(1, hashTable.get("c"));
+        assertNull(hashTable.merge("c", 1, (oldValue, value) -> null));
+        assertFalse(hashTable.containsKey("c"));
+        assertThrows(NullPointerException.class, () -> hashTable.merge("a", null, Integer::sum));
+        assertThrows(ConcurrentModificationException.class,
+            () -> hashTable.computeIfAbsent("x", key -> {
+                hashTable.put("y", 1);
+                return 2;
+            }));
+    }
+
+    @Test
+    public void testCachedHashCode() {
+        HashTable<String, Integer> other = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("Key" + i, i);
+            other.put("Key" + (99 - i), 99 - i);
+        }
+        assertEquals(hashTable.hashCode(), other.hashCode());
+        assertEquals(hashTable, other);
+
+        int expected = 0;
+        for (HashTable.Entry<String, Integer> entry : hashTable) {
+            expected += entry.hashCode();
+        }
+        assertEquals(expected, hashTable.hashCode());
+
+        hashTable.update("Key5", 500);
+        hashTable.merge("Key6", 1, Integer::sum);
+        hashTable.remove("Key7");
+        expected = 0;
+        for (HashTable.Entry<String, Integer> entry : hashTable) {
+            expected += entry.hashCode();
+        }
+        assertEquals(expected, hashTable.hashCode());
+        assertNotEquals(hashTable.hashCode(), other.hashCode());
+        other.put("Key5", 500);
+        other.compute("Key6", (key, value) -> value + 1);
+        other.removeAll(new Object[] {"Key7"});
+        assertEquals(hashTable.hashCode(), other.hashCode());
+        assertEquals(hashTable, other);
+    }
+
+    @Test
+    public void testHashCodeAfterValueRoundTrip() {
+        HashTable<String, Integer> fresh = new HashTable<>();
+        hashTable.put("A", 1);
+        fresh.put("A", 1);
+        hashTable.update("A", 2);
+        hashTable.update("A", 1);
+        assertEquals(fresh.hashCode(), hashTable.hashCode());
+        assertEquals(fresh, hashTable);
+
+        hashTable.replace("A", 3);
+        hashTable.merge("A", 1, (old, value) -> value);
+        hashTable.compute("A", (key, value) -> value);
+        assertEquals(fresh.hashCode(), hashTable.hashCode());
+        assertEquals(fresh, hashTable);
+
+        hashTable.update("A", 2);
+        HashTable<String, Integer> updated = new HashTable<>();
+        updated.put("A", 2);
+        assertEquals(updated.hashCode(), hashTable.hashCode());
+        assertEquals(updated, hashTable);
+    }
+
+    @Test
+    public void testEqualsDistinguishesNullValueFromAbsentKey() {
+        HashTable<String, Integer> first = new HashTable<>();
+        HashTable<String, Integer> second = new HashTable<>();
+        first.put("A", null);
+        second.put("B", null);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testResizeReusesStoredHashes() {
+        int[] hashCodeCalls = new int[1];
+        class CountingKey {
+            private final int id;
+
+            CountingKey(int id) {
+                this.id = id;
+            }
+
+            @Override
+            public int hashCode() {
+                hashCodeCalls[0]++;
+                return id;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof CountingKey other && other.id == id;
+            }
+        }
+        HashTable<CountingKey, Integer> table = new HashTable<>();
+        for (int i = 0; i < 1000; i++) {
+            table.put(new CountingKey(i), i);
+        }
+        assertEquals(1000, hashCodeCalls[0]);
+        assertEquals(1000, table.size());
+        assertEquals(500, table.get(new CountingKey(500)));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        Iterator<HashTable.Entry<String, Integer>> iterator = hashTable.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue() % 2 == 0) {
+                iterator.remove();
+                assertThrows(IllegalStateException.class, iterator::remove);
+            }
+        }
+        assertEquals(50, hashTable.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 != 0, hashTable.containsKey("Key" + i));
+        }
+
+        Iterator<HashTable.Entry<String, Integer>> stale = hashTable.iterator();
+        stale.next();
+        hashTable.put("New", 0);
+        assertThrows(ConcurrentModificationException.class, stale::remove);
+    }
+
+    @Test
+    public void testWeaklyConsistentIterator() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        HashTable<String, Integer> seen = new HashTable<>();
+        Iterator<HashTable.Entry<String, Integer>> iterator = hashTable.weaklyConsistentIterator();
+        int added = 0;
+        while (iterator.hasNext()) {
+            HashTable.Entry<String, Integer> entry = iterator.next();
+            assertNull(seen.putIfAbsent(entry.getKey(), entry.getValue()));
+            if (entry.getKey().startsWith("Key")) {
+                for (int i = 0; i < 3; i++) {
+                    hashTable.put("Added" + added, added);
+                    added++;
+                }
+                hashTable.remove("Key" + (entry.getValue() + 500));
+            }
+            if (entry.getValue() % 3 == 0) {
+                iterator.remove();
+                assertThrows(IllegalStateException.class, iterator::remove);
+            }
+        }
+        assertTrue(hashTable.size() > 2000);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(seen.containsKey("Key" + i));
+            assertEquals(i % 3 != 0, hashTable.containsKey("Key" + i));
+        }
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testPresizedTableDoesNotResize() {
+        HashTable<Integer, Integer> table = new HashTable<>(10_000);
+        table.enableStats();
+        int capacity = table.stats().capacity();
+        for (int i = 0; i < 10_000; i++) {
+            table.put(i, i);
+        }
+        assertEquals(0, table.stats().resizeCount());
+        assertEquals(capacity, table.stats().capacity());
+
+        HashTable<Integer, Integer> dense = new HashTable<>(1000, 4.0f);
+        for (int i = 0; i < 1000; i++) {
+            dense.put(i, i);
+        }
+        assertTrue(dense.stats().capacity() < 1000);
+        assertEquals(999, dense.get(999));
+
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(16, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(16, Float.NaN));
+    }
+
+    @Test
+    public void testEnsureCapacityAndTrimToSize() {
+        hashTable.enableStats();
+        hashTable.ensureCapacity(100_000);
+        assertEquals(1, hashTable.stats().resizeCount());
+        for (int i = 0; i < 100_000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        assertEquals(1, hashTable.stats().resizeCount());
+        hashTable.ensureCapacity(10);
+        assertEquals(1, hashTable.stats().resizeCount());
+
+        for (int i = 10; i < 100_000; i++) {
+            hashTable.remove("Key" + i);
+        }
+        int capacity = hashTable.stats().capacity();
+        hashTable.trimToSize();
+        assertTrue(hashTable.stats().capacity() < 32);
+        assertTrue(hashTable.stats().capacity() < capacity);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, hashTable.get("Key" + i));
+        }
+        hashTable.put("Key10", 10);
+        assertEquals(11, hashTable.size());
+    }
+
+    @Test
+    public void testAutoShrink() {
+        for (int i = 0; i < 100_000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        int capacity = hashTable.stats().capacity();
+        for (int i = 1000; i < 100_000; i++) {
+            hashTable.remove("Key" + i);
+        }
+        assertEquals(capacity, hashTable.stats().capacity());
+
+        hashTable.setAutoShrink(true);
+        hashTable.remove("Key999");
+        int shrunk = hashTable.stats().capacity();
+        assertTrue(shrunk < capacity);
+        assertTrue(hashTable.stats().load() < 0.75 / 2);
+        for (int i = 0; i < 999; i++) {
+            assertEquals(i, hashTable.get("Key" + i));
+        }
+        hashTable.put("Key999", 999);
+        hashTable.remove("Key999");
+        assertEquals(shrunk, hashTable.stats().capacity());
+
+        for (int i = 0; i < 999; i++) {
+            hashTable.remove("Key" + i);
+        }
+        assertEquals(16, hashTable.stats().capacity());
+        assertEquals(0, hashTable.size());
+    }
+
+    @Test
+    public void testBloomFilterNeverHidesKeys() {
+        hashTable.put(null, -1);
+        hashTable.enableBloomFilter();
+        for (int i = 0; i < 50_000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        for (int i = 0; i < 50_000; i += 2) {
+            hashTable.remove("Key" + i);
+        }
+        Integer[] results = new Integer[4];
+        assertEquals(2, hashTable.getAll(new Object[] {"Key1", "Key2", "Key3", "Missing"},
+            results));
+        assertEquals(3, results[2]);
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i % 2 == 1, hashTable.containsKey("Key" + i));
+            assertEquals(i % 2 == 1 ? i : -2, hashTable.getOrDefault("Key" + i, -2));
+        }
+        assertEquals(-1, hashTable.get(null));
+        hashTable.trimToSize();
+        for (int i = 1; i < 50_000; i += 2) {
+            assertEquals(i, hashTable.get("Key" + i));
+        }
+        assertNull(hashTable.get("Key0"));
+    }
+
+    /**
+     * Returns 2^bits distinct strings that all have the same {@code hashCode()}, built from the
+     * colliding blocks "Aa" and "BB".
+     */
+    private static List<String> collidingKeys(int bits) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1 << bits; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int b = 0; b < bits; b++) {
+                sb.append((i >>> b & 1) == 0 ? "Aa" : "BB");
+            }
+            keys.add(sb.toString());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testRandomizedHashingSpreadsCollidingKeys() {
+        List<String> keys = collidingKeys(12);
+        HashTable<String, Integer> plain = new HashTable<>();
+        hashTable.enableRandomizedHashing();
+        for (int i = 0; i < keys.size(); i++) {
+            plain.put(keys.get(i), i);
+            hashTable.put(keys.get(i), i);
+        }
+        assertEquals(keys.size(), plain.stats().maxChainLength());
+        assertTrue(hashTable.stats().maxChainLength() < 16);
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, hashTable.get(keys.get(i)));
+        }
+        assertEquals(plain, hashTable);
+        assertEquals(plain.hashCode(), hashTable.hashCode());
+
+        hashTable.put(null, -1);
+        hashTable.disableRandomizedHashing();
+        assertEquals(keys.size(), hashTable.stats().maxChainLength());
+        assertEquals(-1, hashTable.get(null));
+        hashTable.enableRandomizedHashing();
+        Integer[] results = new Integer[2];
+        assertEquals(2, hashTable.getAll(new Object[] {keys.get(7), null}, results));
+        assertEquals(7, results[0]);
+        assertEquals(7, hashTable.remove(keys.get(7)));
+        assertFalse(hashTable.containsKey(keys.get(7)));
+    }
+
+    @Test
+    public void testWeaklyConsistentIteratorAcrossReseed() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        hashTable.enableRandomizedHashing();
+        HashTable<String, Integer> seen = new HashTable<>();
+        Iterator<HashTable.Entry<String, Integer>> iterator = hashTable.weaklyConsistentIterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            HashTable.Entry<String, Integer> entry = iterator.next();
+            assertNull(seen.putIfAbsent(entry.getKey(), entry.getValue()));
+            if (++count == 300) {
+                hashTable.disableRandomizedHashing();
+                hashTable.enableRandomizedHashing();
+                hashTable.ensureCapacity(10_000);
+            }
+        }
+        assertEquals(1000, seen.size());
+    }
+}
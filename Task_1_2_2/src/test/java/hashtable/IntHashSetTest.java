@@ -0,0 +1,110 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class IntHashSetTest {
+
+    private static Set<Integer> toSet(IntHashSet set) {
+        Set<Integer> result = new HashSet<>();
+        for (IntHashSet.Cursor cursor = set.cursor(); cursor.advance(); ) {
+            assertTrue(result.add(cursor.element()));
+        }
+        return result;
+    }
+
+    private static IntHashSet random(Random random, int count, int bound, Set<Integer> mirror) {
+        IntHashSet set = new IntHashSet();
+        for (int i = 0; i < count; i++) {
+            int element = random.nextInt(bound) - bound / 2;
+            assertEquals(mirror.add(element), set.add(element));
+        }
+        return set;
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-7));
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(1));
+        assertEquals(2, set.size());
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertEquals("[-7]", set.toString());
+        assertThrows(IllegalArgumentException.class, () -> new IntHashSet(-1));
+    }
+
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(3);
+        Set<Integer> expected = new HashSet<>();
+        IntHashSet set = random(random, 100_000, 50_000, expected);
+        for (int i = 0; i < 50_000; i++) {
+            int element = random.nextInt(50_000) - 25_000;
+            assertEquals(expected.remove(element), set.remove(element));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, toSet(set));
+        assertEquals(expected.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(5);
+        Set<Integer> small = new HashSet<>();
+        Set<Integer> large = new HashSet<>();
+        IntHashSet a = random(random, 1_000, 20_000, small);
+        IntHashSet b = random(random, 30_000, 20_000, large);
+        a.add(0);
+        small.add(0);
+
+        Set<Integer> union = new HashSet<>(small);
+        union.addAll(large);
+        Set<Integer> intersection = new HashSet<>(small);
+        intersection.retainAll(large);
+        Set<Integer> smallMinusLarge = new HashSet<>(small);
+        smallMinusLarge.removeAll(large);
+        Set<Integer> largeMinusSmall = new HashSet<>(large);
+        largeMinusSmall.removeAll(small);
+
+        assertEquals(union, toSet(a.union(b)));
+        assertEquals(union, toSet(b.union(a)));
+        assertEquals(intersection, toSet(a.intersection(b)));
+        assertEquals(intersection, toSet(b.intersection(a)));
+        assertEquals(smallMinusLarge, toSet(a.difference(b)));
+        assertEquals(largeMinusSmall, toSet(b.difference(a)));
+        assertEquals(small, toSet(a));
+        assertEquals(large, toSet(b));
+        assertEquals(a.union(b), b.union(a));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void testCursor() {
+        IntHashSet set = new IntHashSet();
+        set.add(1);
+        IntHashSet.Cursor cursor = set.cursor();
+        assertThrows(NoSuchElementException.class, cursor::element);
+        assertTrue(cursor.advance());
+        assertEquals(1, cursor.element());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::element);
+
+        IntHashSet.Cursor stale = set.cursor();
+        set.add(2);
+        assertThrows(ConcurrentModificationException.class, stale::advance);
+    }
+}
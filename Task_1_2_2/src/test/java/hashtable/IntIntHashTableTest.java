@@ -0,0 +1,130 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IntIntHashTableTest {
+
+    private IntIntHashTable hashTable;
+
+    @BeforeEach
+    public void setUp() {
+        hashTable = new IntIntHashTable();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        hashTable.put(1, 10);
+        hashTable.put(2, 20);
+        hashTable.put(1, 11);
+
+        assertEquals(11, hashTable.get(1));
+        assertEquals(20, hashTable.get(2));
+        assertEquals(0, hashTable.get(3));
+        assertEquals(2, hashTable.size());
+
+        assertEquals(20, hashTable.remove(2));
+        assertFalse(hashTable.containsKey(2));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    public void testZeroKeyAndDefaultReturnValue() {
+        hashTable.defaultReturnValue(-1);
+        assertEquals(-1, hashTable.get(0));
+        assertEquals(-1, hashTable.remove(0));
+
+        hashTable.put(0, 5);
+        assertTrue(hashTable.containsKey(0));
+        assertEquals(5, hashTable.get(0));
+        assertEquals(7, hashTable.getOrDefault(42, 7));
+        assertEquals(5, hashTable.remove(0));
+        assertFalse(hashTable.containsKey(0));
+    }
+
+    @Test
+    public void testUpdate() {
+        hashTable.put(5, 1);
+        hashTable.update(5, 2);
+        assertEquals(2, hashTable.get(5));
+
+        Exception exception = assertThrows(NoSuchElementException.class,
+            () -> hashTable.update(6, 3));
+        assertEquals("Key not found: 6", exception.getMessage());
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, hashTable.remove(key));
+            } else {
+                expected.put(key, i);
+                hashTable.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hashTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        hashTable.put(0, 1);
+        hashTable.put(1, 2);
+        hashTable.put(2, 3);
+
+        int keySum = 0;
+        int valueSum = 0;
+        int count = 0;
+        for (IntIntHashTable.Cursor cursor = hashTable.cursor(); cursor.advance(); ) {
+            keySum += cursor.key();
+            valueSum += cursor.value();
+            count++;
+        }
+        assertEquals(3, count);
+        assertEquals(3, keySum);
+        assertEquals(6, valueSum);
+
+        IntIntHashTable.Cursor cursor = hashTable.cursor();
+        assertThrows(NoSuchElementException.class, cursor::key);
+        cursor.advance();
+        hashTable.put(3, 4);
+        assertThrows(ConcurrentModificationException.class, cursor::advance);
+    }
+
+    @Test
+    public void testEqualsHashCodeToString() {
+        IntIntHashTable otherTable = new IntIntHashTable(100);
+        HashTable<Integer, Integer> boxed = new HashTable<>();
+        for (int i = 0; i < 3; i++) {
+            hashTable.put(i, i * 10);
+            otherTable.put(2 - i, (2 - i) * 10);
+            boxed.put(i, i * 10);
+        }
+        assertEquals(hashTable, otherTable);
+        assertEquals(hashTable.hashCode(), otherTable.hashCode());
+        assertEquals(boxed.hashCode(), hashTable.hashCode());
+        assertTrue(hashTable.toString().contains("2=20"));
+
+        otherTable.put(3, 30);
+        assertNotEquals(hashTable, otherTable);
+        assertThrows(IllegalArgumentException.class, () -> new IntIntHashTable(-1));
+    }
+}
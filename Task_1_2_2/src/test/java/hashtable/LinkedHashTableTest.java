@@ -0,0 +1,169 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class LinkedHashTableTest {
+
+    private static <K, V> List<K> keys(HashTable<K, V> table) {
+        List<K> keys = new ArrayList<>();
+        for (HashTable.Entry<K, V> entry : table) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        LinkedHashTable<Integer, String> table = new LinkedHashTable<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int key = (i * 7919) % 1000;
+            table.put(key, "Value" + key);
+            expected.add(key);
+        }
+        assertEquals(expected, keys(table));
+
+        table.put(expected.get(0), "Replaced");
+        table.get(expected.get(1));
+        assertEquals(expected, keys(table));
+
+        table.remove(expected.get(2));
+        expected.remove(2);
+        table.put(expected.get(0) + 1000, "New");
+        expected.add(expected.get(0) + 1000);
+        assertEquals(expected, keys(table));
+        assertEquals(expected, table.stream().map(HashTable.Entry::getKey)
+            .collect(Collectors.toList()));
+        assertEquals(expected.get(0), table.eldest().getKey());
+
+        List<Integer> visited = new ArrayList<>();
+        table.forEach((key, value) -> visited.add(key));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void testAccessOrder() {
+        LinkedHashTable<String, Integer> table = new LinkedHashTable<>(16, 0.75f, true);
+        table.put("a", 1);
+        table.put("b", 2);
+        table.put("c", 3);
+        table.get("a");
+        assertEquals(List.of("b", "c", "a"), keys(table));
+        table.put("b", 20);
+        assertEquals(List.of("c", "a", "b"), keys(table));
+        table.merge("c", 1, Integer::sum);
+        assertEquals(List.of("a", "b", "c"), keys(table));
+        table.containsKey("a");
+        assertNull(table.get("missing"));
+        assertEquals(List.of("a", "b", "c"), keys(table));
+        assertEquals(4, table.get("c"));
+    }
+
+    @Test
+    public void testRemoveEldestEntry() {
+        LinkedHashTable<Integer, Integer> lru = new LinkedHashTable<>(4, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(HashTable.Entry<Integer, Integer> eldest) {
+                return size() > 3;
+            }
+        };
+        lru.put(1, 1);
+        lru.put(2, 2);
+        lru.put(3, 3);
+        lru.get(1);
+        lru.put(4, 4);
+        assertEquals(3, lru.size());
+        assertFalse(lru.containsKey(2));
+        assertEquals(List.of(3, 1, 4), keys(lru));
+        lru.computeIfAbsent(5, key -> key);
+        assertEquals(List.of(1, 4, 5), keys(lru));
+    }
+
+    @Test
+    public void testGetAllRecordsAccess() {
+        LinkedHashTable<String, Integer> lru = new LinkedHashTable<>(4, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(HashTable.Entry<String, Integer> eldest) {
+                return size() > 3;
+            }
+        };
+        lru.put("a", 1);
+        lru.put("b", 2);
+        lru.put("c", 3);
+        Integer[] results = new Integer[2];
+        assertEquals(1, lru.getAll(new Object[] {"a", "missing"}, results));
+        assertEquals(1, results[0]);
+        assertNull(results[1]);
+        assertEquals(List.of("b", "c", "a"), keys(lru));
+
+        lru.enableStats();
+        assertEquals(2, lru.getAll(new Object[] {"b", "c"}, results));
+        assertEquals(List.of("a", "b", "c"), keys(lru));
+        lru.put("d", 4);
+        assertFalse(lru.containsKey("a"));
+        assertEquals(List.of("b", "c", "d"), keys(lru));
+    }
+
+    @Test
+    public void testIteratorRemoveAndFailFast() {
+        LinkedHashTable<Integer, Integer> table = new LinkedHashTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+        }
+        Iterator<HashTable.Entry<Integer, Integer>> iterator = table.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(50, table.size());
+        assertEquals(1, table.eldest().getKey());
+
+        HashTable<Integer, Integer> expected = new HashTable<>();
+        for (int i = 1; i < 100; i += 2) {
+            expected.put(i, i);
+        }
+        assertEquals(expected, table);
+        assertEquals(expected.hashCode(), table.hashCode());
+
+        Iterator<HashTable.Entry<Integer, Integer>> failing = table.iterator();
+        failing.next();
+        table.put(1000, 1000);
+        assertThrows(ConcurrentModificationException.class, failing::next);
+        assertThrows(ConcurrentModificationException.class,
+            () -> table.forEach((key, value) -> table.remove(key)));
+    }
+
+    @Test
+    public void testOrderSurvivesResizeAndShrink() {
+        LinkedHashTable<String, Integer> table = new LinkedHashTable<>();
+        table.setAutoShrink(true);
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+        }
+        for (int i = 0; i < 9_990; i++) {
+            table.remove("Key" + i);
+        }
+        assertTrue(table.stats().capacity() < 10_000);
+        List<String> expected = new ArrayList<>();
+        for (int i = 9_990; i < 10_000; i++) {
+            expected.add("Key" + i);
+        }
+        assertEquals(expected, keys(table));
+        assertEquals("{Key9990=9990, Key9991=9991, Key9992=9992, Key9993=9993, Key9994=9994, "
+            + "Key9995=9995, Key9996=9996, Key9997=9997, Key9998=9998, Key9999=9999}",
+            table.toString());
+    }
+}
@@ -0,0 +1,110 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class LongHashSetTest {
+
+    private static Set<Long> toSet(LongHashSet set) {
+        Set<Long> result = new HashSet<>();
+        for (LongHashSet.Cursor cursor = set.cursor(); cursor.advance(); ) {
+            assertTrue(result.add(cursor.element()));
+        }
+        return result;
+    }
+
+    private static LongHashSet random(Random random, int count, int bound, Set<Long> mirror) {
+        LongHashSet set = new LongHashSet();
+        for (int i = 0; i < count; i++) {
+            long element = (random.nextInt(bound) - bound / 2) * 0x100000001L;
+            assertEquals(mirror.add(element), set.add(element));
+        }
+        return set;
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(1L << 32));
+        assertEquals(2, set.size());
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertEquals("[" + Long.MIN_VALUE + "]", set.toString());
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+    }
+
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(3);
+        Set<Long> expected = new HashSet<>();
+        LongHashSet set = random(random, 100_000, 50_000, expected);
+        for (int i = 0; i < 50_000; i++) {
+            long element = (random.nextInt(50_000) - 25_000) * 0x100000001L;
+            assertEquals(expected.remove(element), set.remove(element));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, toSet(set));
+        assertEquals(expected.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(5);
+        Set<Long> small = new HashSet<>();
+        Set<Long> large = new HashSet<>();
+        LongHashSet a = random(random, 1_000, 20_000, small);
+        LongHashSet b = random(random, 30_000, 20_000, large);
+        a.add(0);
+        small.add(0L);
+
+        Set<Long> union = new HashSet<>(small);
+        union.addAll(large);
+        Set<Long> intersection = new HashSet<>(small);
+        intersection.retainAll(large);
+        Set<Long> smallMinusLarge = new HashSet<>(small);
+        smallMinusLarge.removeAll(large);
+        Set<Long> largeMinusSmall = new HashSet<>(large);
+        largeMinusSmall.removeAll(small);
+
+        assertEquals(union, toSet(a.union(b)));
+        assertEquals(union, toSet(b.union(a)));
+        assertEquals(intersection, toSet(a.intersection(b)));
+        assertEquals(intersection, toSet(b.intersection(a)));
+        assertEquals(smallMinusLarge, toSet(a.difference(b)));
+        assertEquals(largeMinusSmall, toSet(b.difference(a)));
+        assertEquals(small, toSet(a));
+        assertEquals(large, toSet(b));
+        assertEquals(a.union(b), b.union(a));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void testCursor() {
+        LongHashSet set = new LongHashSet();
+        set.add(1L << 40);
+        LongHashSet.Cursor cursor = set.cursor();
+        assertThrows(NoSuchElementException.class, cursor::element);
+        assertTrue(cursor.advance());
+        assertEquals(1L << 40, cursor.element());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::element);
+
+        LongHashSet.Cursor stale = set.cursor();
+        set.add(2);
+        assertThrows(ConcurrentModificationException.class, stale::advance);
+    }
+}
@@ -0,0 +1,110 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LongObjectHashTableTest {
+
+    private LongObjectHashTable<String> hashTable;
+
+    @BeforeEach
+    public void setUp() {
+        hashTable = new LongObjectHashTable<>();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        hashTable.put(1L, "One");
+        hashTable.put(Long.MAX_VALUE, "Max");
+        hashTable.put(0L, "Zero");
+
+        assertEquals("One", hashTable.get(1L));
+        assertEquals("Max", hashTable.get(Long.MAX_VALUE));
+        assertEquals("Zero", hashTable.get(0L));
+        assertNull(hashTable.get(2L));
+        assertEquals("fallback", hashTable.getOrDefault(2L, "fallback"));
+        assertEquals(3, hashTable.size());
+
+        assertEquals("Zero", hashTable.remove(0L));
+        assertNull(hashTable.remove(0L));
+        assertFalse(hashTable.containsKey(0L));
+        assertEquals(2, hashTable.size());
+    }
+
+    @Test
+    public void testUpdate() {
+        hashTable.put(5L, "A");
+        hashTable.update(5L, "B");
+        assertEquals("B", hashTable.get(5L));
+        assertThrows(NoSuchElementException.class, () -> hashTable.update(6L, "C"));
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2000) * 0x1_0000_0000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), hashTable.remove(key));
+            } else {
+                expected.put(key, "V" + i);
+                hashTable.put(key, "V" + i);
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hashTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        hashTable.put(0L, "A");
+        hashTable.put(10L, "B");
+
+        int count = 0;
+        for (LongObjectHashTable<String>.Cursor cursor = hashTable.cursor(); cursor.advance(); ) {
+            assertEquals(cursor.key() == 0L ? "A" : "B", cursor.value());
+            count++;
+        }
+        assertEquals(2, count);
+
+        LongObjectHashTable<String>.Cursor cursor = hashTable.cursor();
+        cursor.advance();
+        hashTable.remove(10L);
+        assertThrows(ConcurrentModificationException.class, cursor::advance);
+    }
+
+    @Test
+    public void testEqualsHashCodeToString() {
+        LongObjectHashTable<String> otherTable = new LongObjectHashTable<>(4);
+        HashTable<Long, String> boxed = new HashTable<>();
+        hashTable.put(1L, "A");
+        hashTable.put(2L, null);
+        otherTable.put(2L, null);
+        otherTable.put(1L, "A");
+        boxed.put(1L, "A");
+        boxed.put(2L, null);
+
+        assertEquals(hashTable, otherTable);
+        assertEquals(hashTable.hashCode(), otherTable.hashCode());
+        assertEquals(boxed.hashCode(), hashTable.hashCode());
+        assertTrue(hashTable.toString().contains("1=A"));
+
+        otherTable.put(2L, "B");
+        assertNotEquals(hashTable, otherTable);
+    }
+}
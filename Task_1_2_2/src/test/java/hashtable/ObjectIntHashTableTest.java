@@ -0,0 +1,113 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ObjectIntHashTableTest {
+
+    private ObjectIntHashTable<String> hashTable;
+
+    @BeforeEach
+    public void setUp() {
+        hashTable = new ObjectIntHashTable<>();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        hashTable.put("One", 1);
+        hashTable.put("Two", 2);
+        hashTable.put("One", 11);
+
+        assertEquals(11, hashTable.get("One"));
+        assertEquals(2, hashTable.get("Two"));
+        assertEquals(0, hashTable.get("Three"));
+        assertEquals(2, hashTable.size());
+
+        assertEquals(2, hashTable.remove("Two"));
+        assertFalse(hashTable.containsKey("Two"));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    public void testNullKeyAndDefaultReturnValue() {
+        hashTable.defaultReturnValue(-1);
+        assertEquals(-1, hashTable.get(null));
+
+        hashTable.put(null, 100);
+        assertTrue(hashTable.containsKey(null));
+        assertEquals(100, hashTable.get(null));
+        hashTable.update(null, 200);
+        assertEquals(200, hashTable.remove(null));
+        assertEquals(-1, hashTable.get(null));
+        assertEquals(3, hashTable.getOrDefault("Missing", 3));
+        assertThrows(NoSuchElementException.class, () -> hashTable.update("Missing", 1));
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "Key" + random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, hashTable.remove(key));
+            } else {
+                expected.put(key, i);
+                hashTable.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hashTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        hashTable.put(null, 1);
+        hashTable.put("A", 2);
+
+        int valueSum = 0;
+        for (ObjectIntHashTable<String>.Cursor cursor = hashTable.cursor(); cursor.advance(); ) {
+            valueSum += cursor.value();
+        }
+        assertEquals(3, valueSum);
+
+        ObjectIntHashTable<String>.Cursor cursor = hashTable.cursor();
+        cursor.advance();
+        hashTable.put("B", 3);
+        assertThrows(ConcurrentModificationException.class, cursor::advance);
+    }
+
+    @Test
+    public void testEqualsHashCodeToString() {
+        ObjectIntHashTable<String> otherTable = new ObjectIntHashTable<>();
+        HashTable<String, Integer> boxed = new HashTable<>();
+        hashTable.put("Key1", 1);
+        hashTable.put("Key2", 2);
+        otherTable.put("Key2", 2);
+        otherTable.put("Key1", 1);
+        boxed.put("Key1", 1);
+        boxed.put("Key2", 2);
+
+        assertEquals(hashTable, otherTable);
+        assertEquals(hashTable.hashCode(), otherTable.hashCode());
+        assertEquals(boxed.hashCode(), hashTable.hashCode());
+        assertTrue(hashTable.toString().contains("Key1=1"));
+
+        otherTable.put("Key3", 3);
+        assertNotEquals(hashTable, otherTable);
+    }
+}
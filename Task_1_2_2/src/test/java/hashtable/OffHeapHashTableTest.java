@@ -0,0 +1,158 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapHashTableTest {
+
+    private OffHeapHashTable<String, Long> hashTable;
+
+    @BeforeEach
+    public void setUp() {
+        hashTable = new OffHeapHashTable<>(Codec.STRING, 32, Codec.LONG, 8);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hashTable.close();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        hashTable.put("One", 1L);
+        hashTable.put("Two", 2L);
+        hashTable.put("One", 11L);
+
+        assertEquals(11L, hashTable.get("One"));
+        assertEquals(2L, hashTable.get("Two"));
+        assertNull(hashTable.get("Three"));
+        assertEquals(2, hashTable.size());
+
+        assertEquals(2L, hashTable.remove("Two"));
+        assertNull(hashTable.remove("Two"));
+        assertFalse(hashTable.containsKey("Two"));
+        assertTrue(hashTable.containsKey("One"));
+    }
+
+    @Test
+    public void testUpdate() {
+        hashTable.put("Key", 1L);
+        hashTable.update("Key", 2L);
+        assertEquals(2L, hashTable.get("Key"));
+
+        Exception exception = assertThrows(NoSuchElementException.class,
+            () -> hashTable.update("NonExistentKey", 3L));
+        assertEquals("Key not found: NonExistentKey", exception.getMessage());
+    }
+
+    @Test
+    public void testVariableLengthUtf8Keys() {
+        hashTable.put("", 0L);
+        hashTable.put("ключ", 1L);
+        hashTable.put("a much longer key of 30 bytes", 2L);
+        assertEquals(0L, hashTable.get(""));
+        assertEquals(1L, hashTable.get("ключ"));
+        assertEquals(2L, hashTable.get("a much longer key of 30 bytes"));
+        assertNull(hashTable.get("a key that does not fit into thirty-two bytes"));
+        assertThrows(IllegalArgumentException.class,
+            () -> hashTable.put("a key that does not fit into thirty-two bytes", 3L));
+    }
+
+    @Test
+    public void testUnpairedSurrogatesAreRejected() {
+        for (String key : new String[] {"a\uD800", "\uDC00b", "x\uDBFF\uD800"}) {
+            assertThrows(IllegalArgumentException.class, () -> Codec.STRING.size(key));
+            assertThrows(IllegalArgumentException.class,
+                () -> Codec.STRING.write(key, ByteBuffer.allocate(16)));
+        }
+        String pair = "pair\uD83D\uDE00";
+        assertEquals(pair.getBytes(StandardCharsets.UTF_8).length, Codec.STRING.size(pair));
+
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put("lone\uD800", 1L));
+        assertEquals(0, hashTable.size());
+        hashTable.put("lone?", 2L);
+        hashTable.put(pair, 3L);
+        assertEquals(2, hashTable.size());
+        assertEquals(2L, hashTable.get("lone?"));
+        assertEquals(3L, hashTable.get(pair));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.get("lone\uD800"));
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            String key = "Key" + random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), hashTable.remove(key));
+            } else {
+                expected.put(key, (long) i);
+                hashTable.put(key, (long) i);
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hashTable.get(entry.getKey()));
+        }
+        int count = 0;
+        for (HashTable.Entry<String, Long> entry : hashTable) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void testIteratorIsFailFast() {
+        hashTable.put("A", 1L);
+        hashTable.put("B", 2L);
+        Iterator<HashTable.Entry<String, Long>> iterator = hashTable.iterator();
+        iterator.next();
+        hashTable.put("C", 3L);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    public void testClose() {
+        hashTable.put("A", 1L);
+        assertTrue(hashTable.offHeapBytes() > 0);
+        assertTrue(hashTable.toString().contains("A=1"));
+
+        hashTable.close();
+        assertTrue(hashTable.isClosed());
+        assertEquals(0, hashTable.offHeapBytes());
+        assertEquals("{closed}", hashTable.toString());
+        assertThrows(IllegalStateException.class, () -> hashTable.get("A"));
+        assertThrows(IllegalStateException.class, () -> hashTable.put("B", 2L));
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new OffHeapHashTable<>(Codec.INT, 70_000, Codec.INT, 4));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OffHeapHashTable<>(Codec.INT, 4, Codec.INT, 4, -1));
+        try (OffHeapHashTable<Integer, Integer> table =
+                 new OffHeapHashTable<>(Codec.INT, 4, Codec.INT, 4, 1000)) {
+            table.put(7, 49);
+            assertEquals(49, table.get(7));
+            assertThrows(NullPointerException.class, () -> table.put(null, 1));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the PersistentHashTable class.
+ */
+public class PersistentHashTableTest {
+
+    /**
+     * A key with a chosen hash code, to force collisions.
+     */
+    private record CollidingKey(int id, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void testVersionsAreIndependent() {
+        PersistentHashTable<String, Integer> empty = PersistentHashTable.empty();
+        PersistentHashTable<String, Integer> first = empty.put("A", 1);
+        PersistentHashTable<String, Integer> second = first.put("B", 2);
+        PersistentHashTable<String, Integer> third = second.put("A", 3).remove("B");
+
+        assertEquals(0, empty.size());
+        assertNull(empty.get("A"));
+        assertEquals(1, first.size());
+        assertEquals(1, first.get("A"));
+        assertFalse(first.containsKey("B"));
+        assertEquals(2, second.size());
+        assertEquals(2, second.get("B"));
+        assertEquals(1, third.size());
+        assertEquals(3, third.get("A"));
+        assertEquals("{A=3}", third.toString());
+    }
+
+    @Test
+    public void testUnchangedVersionsAreShared() {
+        Integer one = 1;
+        PersistentHashTable<String, Integer> table = PersistentHashTable.<String, Integer>empty()
+            .put("A", one);
+        assertSame(table, table.put("A", one));
+        assertSame(table, table.remove("B"));
+    }
+
+    @Test
+    public void testMatchesHashTable() {
+        Random random = new Random(7);
+        HashTable<Integer, Integer> expected = new HashTable<>();
+        PersistentHashTable<Integer, Integer> table = PersistentHashTable.empty();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(10_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                table = table.remove(key);
+            } else {
+                expected.put(key, i);
+                table = table.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected.hashCode(), table.hashCode());
+        int count = 0;
+        for (HashTable.Entry<Integer, Integer> entry : table) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+        assertEquals(table, PersistentHashTable.copyOf(expected));
+    }
+
+    @Test
+    public void testCollisionsAndNulls() {
+        PersistentHashTable<Object, String> table = PersistentHashTable.empty();
+        for (int i = 0; i < 10; i++) {
+            table = table.put(new CollidingKey(i, 42), "v" + i);
+        }
+        table = table.put(null, "null key").put("A", null);
+        assertEquals(12, table.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + i, table.get(new CollidingKey(i, 42)));
+        }
+        assertEquals("null key", table.get(null));
+        assertTrue(table.containsKey("A"));
+        assertNull(table.get("A"));
+
+        for (int i = 0; i < 9; i++) {
+            table = table.remove(new CollidingKey(i, 42));
+        }
+        assertEquals(3, table.size());
+        assertEquals("v9", table.get(new CollidingKey(9, 42)));
+        assertFalse(table.containsKey(new CollidingKey(0, 42)));
+    }
+
+    @Test
+    public void testBuilder() {
+        PersistentHashTable.Builder<Integer, Integer> builder = PersistentHashTable.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.put(i, i);
+        }
+        builder.remove(0).put(1, -1);
+        assertEquals(9_999, builder.size());
+        assertEquals(-1, builder.get(1));
+        assertFalse(builder.containsKey(0));
+
+        PersistentHashTable<Integer, Integer> built = builder.build();
+        builder.put(2, -2).remove(3);
+        assertEquals(9_999, built.size());
+        assertEquals(2, built.get(2));
+        assertEquals(3, built.get(3));
+        assertEquals(-2, builder.build().get(2));
+
+        PersistentHashTable.Builder<Integer, Integer> edit = built.toBuilder();
+        for (int i = 1; i < 10_000; i++) {
+            edit.remove(i);
+        }
+        assertEquals(0, edit.size());
+        assertEquals(PersistentHashTable.empty(), edit.build());
+        assertEquals(9_999, built.size());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        PersistentHashTable<String, Integer> first = PersistentHashTable.<String, Integer>empty()
+            .put("A", 1).put("B", 2);
+        PersistentHashTable<String, Integer> second = PersistentHashTable.<String, Integer>empty()
+            .put("B", 2).put("A", 1);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, second.put("A", 3));
+        assertNotEquals(first, second.remove("A"));
+    }
+}
@@ -0,0 +1,163 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+public class ShardedHashTableTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testSingleKeyOperations() {
+        ShardedHashTable<String, Integer> table = new ShardedHashTable<>(5);
+        assertEquals(8, table.shardCount());
+        table.put("a", 1);
+        table.put(null, 0);
+        assertEquals(1, table.get("a"));
+        assertEquals(0, table.get(null));
+        assertEquals(-1, table.getOrDefault("b", -1));
+        assertEquals(1, table.putIfAbsent("a", 2));
+        assertEquals(3, table.merge("a", 2, Integer::sum));
+        assertEquals(1, table.computeIfAbsent("b", String::length));
+        table.update("b", 5);
+        assertEquals(10, table.computeIfPresent("b", (key, value) -> value * 2));
+        assertNull(table.compute("b", (key, value) -> null));
+        assertFalse(table.containsKey("b"));
+        assertThrows(NoSuchElementException.class, () -> table.update("b", 1));
+        assertEquals(3, table.remove("a"));
+        assertEquals(1, table.size());
+
+        assertEquals(1, new ShardedHashTable<>(1).shardCount());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHashTable<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHashTable<>(4, -1));
+    }
+
+    @Test
+    public void testAggregatesMatchHashTable() {
+        ShardedHashTable<String, Integer> table = new ShardedHashTable<>(16, 10_000);
+        HashTable<String, Integer> expected = new HashTable<>();
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+            expected.put("Key" + i, i);
+        }
+        assertEquals(10_000, table.size());
+        assertEquals(expected.hashCode(), table.hashCode());
+
+        HashTable<String, Integer> copy = new HashTable<>();
+        for (HashTable.Entry<String, Integer> entry : table) {
+            assertNull(copy.putIfAbsent(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(expected, copy);
+
+        ShardedHashTable<String, Integer> other = new ShardedHashTable<>(3);
+        for (int i = 9_999; i >= 0; i--) {
+            other.put("Key" + i, i);
+        }
+        assertEquals(table, other);
+        other.put("Key0", -1);
+        assertNotEquals(table, other);
+        other.remove("Key0");
+        assertNotEquals(table, other);
+        assertNotEquals(other, table);
+        assertEquals("{x=1}", singleton().toString());
+    }
+
+    private static ShardedHashTable<String, Integer> singleton() {
+        ShardedHashTable<String, Integer> table = new ShardedHashTable<>(4);
+        table.put("x", 1);
+        return table;
+    }
+
+    @Test
+    public void testConcurrentWritesAndMerges() throws InterruptedException {
+        ShardedHashTable<Integer, Integer> table = new ShardedHashTable<>(THREADS * 4);
+        int perThread = 20_000;
+        runConcurrently(id -> {
+            for (int i = 0; i < perThread; i++) {
+                table.put(id * perThread + i, i);
+                table.merge(-1 - i % 100, 1, Integer::sum);
+            }
+        });
+        assertEquals(THREADS * perThread + 100, table.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(THREADS * perThread / 100, table.get(-1 - i));
+        }
+        for (int id = 0; id < THREADS; id++) {
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(i, table.get(id * perThread + i));
+            }
+        }
+    }
+
+    @Test
+    public void testIterationDuringWrites() throws InterruptedException {
+        ShardedHashTable<Integer, Integer> table = new ShardedHashTable<>(16);
+        for (int i = 0; i < 10_000; i++) {
+            table.put(i, i);
+        }
+        runConcurrently(id -> {
+            if (id == 0) {
+                for (int round = 0; round < 20; round++) {
+                    int stable = 0;
+                    for (HashTable.Entry<Integer, Integer> entry : table) {
+                        if (entry.getKey() < 10_000) {
+                            assertEquals(entry.getKey(), entry.getValue());
+                            stable++;
+                        }
+                    }
+                    assertEquals(10_000, stable);
+                }
+            } else {
+                for (int i = 0; i < 10_000; i++) {
+                    int key = 10_000 + id * 10_000 + i;
+                    table.put(key, key);
+                    table.remove(key);
+                }
+            }
+        });
+        assertEquals(10_000, table.size());
+    }
+
+    /**
+     * Runs the task on {@link #THREADS} threads that start at the same time.
+     */
+    private void runConcurrently(ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(id);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    private interface ThreadTask {
+        void run(int threadId) throws Exception;
+    }
+}
@@ -0,0 +1,148 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class StringKeyHashTableTest {
+
+    private static Map<String, Integer> toMap(StringKeyHashTable<Integer> table) {
+        Map<String, Integer> result = new HashMap<>();
+        for (StringKeyHashTable<Integer>.Cursor cursor = table.cursor(); cursor.advance(); ) {
+            assertFalse(result.containsKey(cursor.key()));
+            result.put(cursor.key(), cursor.value());
+        }
+        return result;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        StringKeyHashTable<Integer> table = new StringKeyHashTable<>();
+        table.put("one", 1);
+        table.put(new StringBuilder("two"), 2);
+        table.put("", 0);
+        table.put("one", 11);
+        assertEquals(3, table.size());
+        assertEquals(11, table.get("one"));
+        assertEquals(2, table.get("two"));
+        assertEquals(0, table.get(""));
+        assertNull(table.get("three"));
+        assertEquals(3, table.getOrDefault("three", 3));
+        assertTrue(table.containsKey(new StringBuilder("one")));
+
+        assertEquals(2, table.remove("two"));
+        assertNull(table.remove("two"));
+        assertFalse(table.containsKey("two"));
+        assertEquals(2, table.size());
+        assertThrows(IllegalArgumentException.class, () -> new StringKeyHashTable<>(-1));
+    }
+
+    @Test
+    public void testByteSliceLookups() {
+        StringKeyHashTable<String> table = new StringKeyHashTable<>();
+        table.put("header-name", "ascii");
+        table.put("größe", "utf-8");
+        byte[] buffer = "xxheader-namexx".getBytes(StandardCharsets.UTF_8);
+        assertEquals("ascii", table.get(buffer, 2, 11));
+        assertNull(table.get(buffer, 2, 10));
+
+        byte[] encoded = "größe".getBytes(StandardCharsets.UTF_8);
+        assertEquals("utf-8", table.get(encoded, 0, encoded.length));
+        assertTrue(table.containsKey(encoded, 0, encoded.length));
+
+        table.put(buffer, 0, 4, "slice");
+        assertEquals("slice", table.get("xxhe"));
+        assertEquals("slice", table.remove(buffer, 0, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(buffer, 10, 10));
+    }
+
+    @Test
+    public void testUnpairedSurrogatesAreRejected() {
+        StringKeyHashTable<Integer> table = new StringKeyHashTable<>();
+        table.put("k?", 1);
+        assertThrows(IllegalArgumentException.class, () -> table.put("k\uD800", 2));
+        assertThrows(IllegalArgumentException.class, () -> table.get("k\uDC00"));
+        assertThrows(IllegalArgumentException.class, () -> table.containsKey("k\uD800"));
+        assertThrows(IllegalArgumentException.class, () -> table.remove("k\uD800"));
+        assertEquals(1, table.size());
+        assertEquals(1, table.get("k?"));
+
+        table.put("k\uD83D\uDE00", 3);
+        assertEquals(2, table.size());
+        assertEquals(3, table.get("k\uD83D\uDE00"));
+        byte[] bytes = "k\uD83D\uDE00".getBytes(StandardCharsets.UTF_8);
+        assertEquals(3, table.get(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(11);
+        Map<String, Integer> expected = new HashMap<>();
+        StringKeyHashTable<Integer> table = new StringKeyHashTable<>();
+        for (int i = 0; i < 200_000; i++) {
+            String key = (random.nextInt(4) == 0 ? "é" : "k") + random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), table.remove(key));
+            } else {
+                expected.put(key, i);
+                table.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected, toMap(table));
+        assertEquals(expected.hashCode(), table.hashCode());
+        for (String key : expected.keySet()) {
+            assertEquals(expected.get(key), table.get(key));
+        }
+    }
+
+    @Test
+    public void testEqualsAndToString() {
+        StringKeyHashTable<Integer> a = new StringKeyHashTable<>();
+        StringKeyHashTable<Integer> b = new StringKeyHashTable<>(100);
+        a.put("x", 1);
+        a.put("y", null);
+        b.put("y", null);
+        b.put("x", 1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        b.put("x", 2);
+        assertNotEquals(a, b);
+
+        StringKeyHashTable<Integer> single = new StringKeyHashTable<>();
+        single.put("key", 7);
+        assertEquals("{key=7}", single.toString());
+    }
+
+    @Test
+    public void testCursor() {
+        StringKeyHashTable<Integer> table = new StringKeyHashTable<>();
+        table.put("ключ", 1);
+        StringKeyHashTable<Integer>.Cursor cursor = table.cursor();
+        assertThrows(NoSuchElementException.class, cursor::key);
+        assertTrue(cursor.advance());
+        assertEquals("ключ", cursor.key());
+        assertEquals(8, cursor.keyLength());
+        byte[] copy = new byte[8];
+        cursor.copyKey(copy, 0);
+        assertEquals("ключ", new String(copy, StandardCharsets.UTF_8));
+        assertEquals(1, cursor.value());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::value);
+
+        StringKeyHashTable<Integer>.Cursor stale = table.cursor();
+        table.put("other", 2);
+        assertThrows(ConcurrentModificationException.class, stale::advance);
+    }
+}
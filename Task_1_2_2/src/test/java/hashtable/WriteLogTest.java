@@ -0,0 +1,102 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WriteLogTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("table", ".log");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private List<String> replay() throws IOException {
+        List<String> operations = new ArrayList<>();
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.replay(new WriteLog.Listener<>() {
+                @Override
+                public void put(String key, Integer value) {
+                    operations.add("put " + key + "=" + value);
+                }
+
+                @Override
+                public void remove(String key) {
+                    operations.add("remove " + key);
+                }
+            });
+        }
+        return operations;
+    }
+
+    @Test
+    public void testAppendAndReplay() throws IOException {
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.appendPut("A", 1);
+            log.appendPut(null, null);
+            log.appendRemove("A");
+            log.sync();
+        }
+        assertEquals(List.of("put A=1", "put null=null", "remove A"), replay());
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.appendPut("A", 1);
+            log.appendPut("B", 2);
+        }
+        long intact;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            intact = channel.size();
+            channel.truncate(intact - 3);
+        }
+        assertEquals(List.of("put A=1"), replay());
+
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.appendPut("C", 3);
+        }
+        assertEquals(List.of("put A=1", "put C=3"), replay());
+    }
+
+    @Test
+    public void testCorruptRecordStopsReplay() throws IOException {
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.appendPut("A", 1);
+            log.appendPut("B", 2);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 6] ^= 0x55;
+        Files.write(file, bytes);
+        assertEquals(List.of("put A=1"), replay());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        try (WriteLog<String, Integer> log = new WriteLog<>(file, Codec.STRING, Codec.INT)) {
+            log.appendPut("A", 1);
+            log.clear();
+            assertEquals(0, log.length());
+            log.appendRemove("B");
+        }
+        List<String> operations = replay();
+        assertEquals(1, operations.size());
+        assertEquals("remove B", operations.get(0));
+    }
+}